@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchmakingEngineBenchmark {
+    private static final QueuePartition PARTITION = QueuePartition.of("nodebuff", "ranked");
+    private static final long TICK = 50;
+
+    @Param({"10000"})
+    private int players;
+
+    private MatchmakingEngine engine;
+    private Random random;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.engine = new MatchmakingEngine(MatchQueueSettings.newBuilder()
+                .baseRange(25)
+                .rangePerSecond(5)
+                .maxRange(400)
+                .build());
+        this.random = new Random(42);
+        this.now = System.currentTimeMillis();
+
+        for (int i = 0; i < this.players; i++) {
+            this.engine.add(newEntry(this.now - this.random.nextInt(30_000)));
+        }
+    }
+
+    @Benchmark
+    public QueueEntry findOpponent() {
+        return this.engine.findOpponent(newEntry(this.now), this.now);
+    }
+
+    @Benchmark
+    public QueuePair enqueueAndLeave() {
+        QueueEntry entry = newEntry(this.now);
+        QueuePair pair = this.engine.enqueue(entry);
+        if (pair == null) {
+            this.engine.remove(entry);
+        } else {
+            this.engine.add(newEntry(this.now));
+        }
+        return pair;
+    }
+
+    @Benchmark
+    public List<QueuePair> tick() {
+        this.now += TICK;
+
+        List<QueuePair> pairs = this.engine.tick(PARTITION, this.now);
+        for (int i = 0; i < pairs.size() * 2; i++) {
+            this.engine.add(newEntry(this.now));
+        }
+        return pairs;
+    }
+
+    private QueueEntry newEntry(long joinedAt) {
+        int rating = (int) Math.round(1500 + this.random.nextGaussian() * 200);
+        return new QueueEntry(UUID.randomUUID(), PARTITION, "benchmark", rating, joinedAt);
+    }
+}
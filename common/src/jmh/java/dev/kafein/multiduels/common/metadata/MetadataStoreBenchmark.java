@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class MetadataStoreBenchmark {
+    private static final MetadataKey<Integer> KILLS = MetadataKey.ofInt("benchmark-kills");
+    private static final MetadataKey<String> ARENA = MetadataKey.of("benchmark-arena", String.class);
+
+    @Param({"1000"})
+    private int players;
+
+    private MetadataStore store;
+    private UUID[] uniqueIds;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.store = new MetadataStore();
+        this.uniqueIds = new UUID[this.players];
+        for (int i = 0; i < this.players; i++) {
+            UUID uniqueId = UUID.randomUUID();
+            this.uniqueIds[i] = uniqueId;
+            this.store.setInt(uniqueId, KILLS, 0);
+            this.store.set(uniqueId, ARENA, "arena-" + (i % 16));
+        }
+    }
+
+    @Benchmark
+    public void setInt() {
+        this.store.setInt(randomPlayer(), KILLS, ThreadLocalRandom.current().nextInt());
+    }
+
+    @Benchmark
+    public Integer get() {
+        return this.store.get(randomPlayer(), KILLS);
+    }
+
+    @Benchmark
+    public void update() {
+        this.store.update(randomPlayer(), metadataMap -> metadataMap.setInt(KILLS, metadataMap.getInt(KILLS, 0) + 1));
+    }
+
+    @Benchmark
+    public void removeAndSet() {
+        UUID uniqueId = randomPlayer();
+        this.store.remove(uniqueId);
+        this.store.set(uniqueId, ARENA, "arena-0");
+    }
+
+    private UUID randomPlayer() {
+        return this.uniqueIds[ThreadLocalRandom.current().nextInt(this.uniqueIds.length)];
+    }
+
+    @Threads(1)
+    public static class OneThread extends MetadataStoreBenchmark {
+    }
+
+    @Threads(2)
+    public static class TwoThreads extends MetadataStoreBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends MetadataStoreBenchmark {
+    }
+
+    @Threads(8)
+    public static class EightThreads extends MetadataStoreBenchmark {
+    }
+}
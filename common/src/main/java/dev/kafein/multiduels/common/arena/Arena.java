@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.arena;
+
+import com.google.common.collect.Lists;
+import dev.kafein.multiduels.common.components.LocationComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class Arena {
+    private final String id;
+    private final ArenaTemplate template;
+    private final LocationComponent origin;
+    private final BlockJournal journal;
+    private final List<LocationComponent> spawns;
+
+    private final AtomicReference<ArenaState> state;
+    private volatile long leasedAt;
+
+    public Arena(String id, ArenaTemplate template, LocationComponent origin) {
+        this.id = id;
+        this.template = template;
+        this.origin = origin;
+        this.journal = new BlockJournal();
+        this.spawns = translate(template.getSpawns(), origin);
+        this.state = new AtomicReference<>(ArenaState.RESETTING);
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public ArenaTemplate getTemplate() {
+        return this.template;
+    }
+
+    public LocationComponent getOrigin() {
+        return this.origin;
+    }
+
+    public BlockJournal getJournal() {
+        return this.journal;
+    }
+
+    public List<LocationComponent> getSpawns() {
+        return this.spawns;
+    }
+
+    public ArenaState getState() {
+        return this.state.get();
+    }
+
+    void setState(@NotNull ArenaState state) {
+        this.state.set(state);
+    }
+
+    boolean compareAndSetState(@NotNull ArenaState expected, @NotNull ArenaState state) {
+        return this.state.compareAndSet(expected, state);
+    }
+
+    public long getLeasedAt() {
+        return this.leasedAt;
+    }
+
+    void setLeasedAt(long leasedAt) {
+        this.leasedAt = leasedAt;
+    }
+
+    public boolean contains(@NotNull LocationComponent location) {
+        if (!location.getWorld().equals(this.origin.getWorld())) {
+            return false;
+        }
+
+        return this.template.contains(
+                (int) Math.floor(location.getX() - this.origin.getX()),
+                (int) Math.floor(location.getY() - this.origin.getY()),
+                (int) Math.floor(location.getZ() - this.origin.getZ()));
+    }
+
+    public boolean recordChange(int x, int y, int z, @NotNull String original) {
+        return this.journal.record(
+                x - (int) Math.floor(this.origin.getX()),
+                y - (int) Math.floor(this.origin.getY()),
+                z - (int) Math.floor(this.origin.getZ()),
+                original);
+    }
+
+    private static List<LocationComponent> translate(@NotNull List<LocationComponent> spawns, @NotNull LocationComponent origin) {
+        List<LocationComponent> translated = Lists.newArrayListWithCapacity(spawns.size());
+        for (LocationComponent spawn : spawns) {
+            translated.add(LocationComponent.of(origin.getWorld(),
+                    origin.getX() + spawn.getX(),
+                    origin.getY() + spawn.getY(),
+                    origin.getZ() + spawn.getZ(),
+                    spawn.getYaw(), spawn.getPitch()));
+        }
+        return Collections.unmodifiableList(translated);
+    }
+
+    @Override
+    public String toString() {
+        return "Arena{" +
+                "id='" + this.id + '\'' +
+                ", template=" + this.template.getName() +
+                ", state=" + this.state.get() +
+                '}';
+    }
+}
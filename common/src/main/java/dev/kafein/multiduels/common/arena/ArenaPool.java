@@ -0,0 +1,309 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.arena;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.components.LocationComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class ArenaPool {
+    private final ArenaWorldAdapter adapter;
+    private final ArenaPoolSettings settings;
+    private final Map<String, TemplatePool> pools;
+
+    private final LongAdder leaseCount;
+    private final LongAdder missCount;
+    private final LongAdder resetCount;
+    private final LongAdder failedResetCount;
+    private final AtomicLong totalResetTime;
+    private final AtomicLong maxResetTime;
+
+    public ArenaPool(ArenaWorldAdapter adapter) {
+        this(adapter, ArenaPoolSettings.defaults());
+    }
+
+    public ArenaPool(ArenaWorldAdapter adapter, ArenaPoolSettings settings) {
+        this.adapter = adapter;
+        this.settings = settings;
+        this.pools = Maps.newConcurrentMap();
+        this.leaseCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.resetCount = new LongAdder();
+        this.failedResetCount = new LongAdder();
+        this.totalResetTime = new AtomicLong();
+        this.maxResetTime = new AtomicLong();
+    }
+
+    public void register(@NotNull ArenaTemplate template) {
+        this.pools.putIfAbsent(template.getName(), new TemplatePool(template));
+    }
+
+    public CompletableFuture<Void> warmUp() {
+        List<CompletableFuture<Void>> futures = Lists.newArrayList();
+        for (TemplatePool pool : this.pools.values()) {
+            futures.add(warmUp(pool));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    public CompletableFuture<Void> warmUp(@NotNull String template) {
+        return warmUp(getPool(template));
+    }
+
+    private CompletableFuture<Void> warmUp(@NotNull TemplatePool pool) {
+        int missing = this.settings.getInstances() - pool.total.get();
+        if (missing <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[missing];
+        for (int i = 0; i < missing; i++) {
+            futures[i] = provision(pool);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    public @Nullable Arena lease(@NotNull String template) {
+        TemplatePool pool = getPool(template);
+
+        Arena arena = pool.available.pollFirst();
+        if (arena == null) {
+            this.missCount.increment();
+            if (pool.provisioning.get() == 0) {
+                provision(pool);
+            }
+            replenish(pool);
+            return null;
+        }
+
+        arena.setState(ArenaState.LEASED);
+        arena.setLeasedAt(System.currentTimeMillis());
+        this.leaseCount.increment();
+
+        if (pool.available.size() < this.settings.getLowWatermark()) {
+            replenish(pool);
+        }
+        return arena;
+    }
+
+    public CompletableFuture<Void> release(@NotNull Arena arena) {
+        TemplatePool pool = getPool(arena.getTemplate().getName());
+        checkArgument(pool.arenas.get(arena.getId()) == arena, "Arena " + arena.getId() + " does not belong to this pool");
+        checkArgument(arena.compareAndSetState(ArenaState.LEASED, ArenaState.RESETTING), "Arena " + arena.getId() + " is not leased");
+
+        List<BlockJournal.Change> changes = arena.getJournal().drain();
+        if (changes.isEmpty()) {
+            makeAvailable(pool, arena);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> restore;
+        try {
+            restore = this.adapter.restore(arena, changes);
+        } catch (RuntimeException e) {
+            restore = new CompletableFuture<>();
+            restore.completeExceptionally(e);
+        }
+
+        return restore.handle((result, throwable) -> {
+            if (throwable != null) {
+                this.failedResetCount.increment();
+                discard(pool, arena);
+                replenish(pool);
+                return null;
+            }
+
+            recordReset(System.nanoTime() - start);
+            makeAvailable(pool, arena);
+            return null;
+        });
+    }
+
+    public void discard(@NotNull Arena arena) {
+        TemplatePool pool = getPool(arena.getTemplate().getName());
+        discard(pool, arena);
+        replenish(pool);
+    }
+
+    private CompletableFuture<Void> provision(@NotNull TemplatePool pool) {
+        if (pool.total.incrementAndGet() > this.settings.getMaxInstances()) {
+            pool.total.decrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int index = pool.nextIndex.getAndIncrement();
+        ArenaTemplate template = pool.template;
+        LocationComponent origin = this.adapter.getOrigin(template, index);
+        Arena arena = new Arena(template.getName() + '-' + index, template, origin);
+        pool.arenas.put(arena.getId(), arena);
+        pool.provisioning.incrementAndGet();
+
+        CompletableFuture<Void> paste;
+        try {
+            paste = this.adapter.paste(template, origin);
+        } catch (RuntimeException e) {
+            paste = new CompletableFuture<>();
+            paste.completeExceptionally(e);
+        }
+
+        return paste.handle((result, throwable) -> {
+            pool.provisioning.decrementAndGet();
+            if (throwable != null) {
+                discard(pool, arena);
+            } else {
+                makeAvailable(pool, arena);
+            }
+            return null;
+        });
+    }
+
+    private void replenish(@NotNull TemplatePool pool) {
+        int deficit = this.settings.getLowWatermark() - pool.available.size() - pool.provisioning.get();
+        for (int i = 0; i < deficit; i++) {
+            provision(pool);
+        }
+    }
+
+    private void makeAvailable(@NotNull TemplatePool pool, @NotNull Arena arena) {
+        arena.setState(ArenaState.AVAILABLE);
+        arena.setLeasedAt(0);
+        pool.available.offerLast(arena);
+    }
+
+    private void discard(@NotNull TemplatePool pool, @NotNull Arena arena) {
+        arena.setState(ArenaState.BROKEN);
+        pool.available.remove(arena);
+        if (pool.arenas.remove(arena.getId(), arena)) {
+            pool.total.decrementAndGet();
+        }
+    }
+
+    private void recordReset(long time) {
+        this.resetCount.increment();
+        this.totalResetTime.addAndGet(time);
+        this.maxResetTime.accumulateAndGet(time, Math::max);
+    }
+
+    private TemplatePool getPool(@NotNull String template) {
+        TemplatePool pool = this.pools.get(template);
+        checkNotNull(pool, "Arena template " + template + " is not registered");
+        return pool;
+    }
+
+    public @Nullable Arena getArena(@NotNull String id) {
+        for (TemplatePool pool : this.pools.values()) {
+            Arena arena = pool.arenas.get(id);
+            if (arena != null) {
+                return arena;
+            }
+        }
+        return null;
+    }
+
+    public Collection<Arena> getArenas(@NotNull String template) {
+        return Collections.unmodifiableCollection(getPool(template).arenas.values());
+    }
+
+    public Collection<String> getTemplates() {
+        return Collections.unmodifiableSet(this.pools.keySet());
+    }
+
+    public int getAvailable(@NotNull String template) {
+        return getPool(template).available.size();
+    }
+
+    public int getTotal(@NotNull String template) {
+        return getPool(template).total.get();
+    }
+
+    public int getProvisioning(@NotNull String template) {
+        return getPool(template).provisioning.get();
+    }
+
+    public ArenaPoolSettings getSettings() {
+        return this.settings;
+    }
+
+    public long getLeaseCount() {
+        return this.leaseCount.sum();
+    }
+
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    public long getResetCount() {
+        return this.resetCount.sum();
+    }
+
+    public long getFailedResetCount() {
+        return this.failedResetCount.sum();
+    }
+
+    public long getAverageResetTime(@NotNull TimeUnit unit) {
+        long count = this.resetCount.sum();
+        return count == 0 ? 0 : unit.convert(this.totalResetTime.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxResetTime(@NotNull TimeUnit unit) {
+        return unit.convert(this.maxResetTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static final class TemplatePool {
+        private final ArenaTemplate template;
+        private final Deque<Arena> available;
+        private final Map<String, Arena> arenas;
+        private final AtomicInteger total;
+        private final AtomicInteger provisioning;
+        private final AtomicInteger nextIndex;
+
+        private TemplatePool(ArenaTemplate template) {
+            this.template = template;
+            this.available = new ConcurrentLinkedDeque<>();
+            this.arenas = Maps.newConcurrentMap();
+            this.total = new AtomicInteger();
+            this.provisioning = new AtomicInteger();
+            this.nextIndex = new AtomicInteger();
+        }
+    }
+}
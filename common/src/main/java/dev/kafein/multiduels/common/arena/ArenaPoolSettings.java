@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.arena;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import org.jetbrains.annotations.NotNull;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class ArenaPoolSettings {
+    private static final ArenaPoolSettings DEFAULTS = newBuilder().build();
+
+    private final int instances;
+    private final int lowWatermark;
+    private final int maxInstances;
+
+    public ArenaPoolSettings(int instances, int lowWatermark, int maxInstances) {
+        this.instances = instances;
+        this.lowWatermark = lowWatermark;
+        this.maxInstances = maxInstances;
+    }
+
+    @NotNull
+    public static ArenaPoolSettings defaults() {
+        return DEFAULTS;
+    }
+
+    @NotNull
+    public static ArenaPoolSettings fromNode(@NotNull ConfigurationNode node) {
+        return newBuilder()
+                .instances(node.getNode("instances").getInt(DEFAULTS.instances))
+                .lowWatermark(node.getNode("low-watermark").getInt(DEFAULTS.lowWatermark))
+                .maxInstances(node.getNode("max-instances").getInt(DEFAULTS.maxInstances))
+                .build();
+    }
+
+    public int getInstances() {
+        return this.instances;
+    }
+
+    public int getLowWatermark() {
+        return this.lowWatermark;
+    }
+
+    public int getMaxInstances() {
+        return this.maxInstances;
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int instances = 4;
+        private int lowWatermark = 2;
+        private int maxInstances = 16;
+
+        private Builder() {
+        }
+
+        public int instances() {
+            return this.instances;
+        }
+
+        public Builder instances(int instances) {
+            this.instances = instances;
+            return this;
+        }
+
+        public int lowWatermark() {
+            return this.lowWatermark;
+        }
+
+        public Builder lowWatermark(int lowWatermark) {
+            this.lowWatermark = lowWatermark;
+            return this;
+        }
+
+        public int maxInstances() {
+            return this.maxInstances;
+        }
+
+        public Builder maxInstances(int maxInstances) {
+            this.maxInstances = maxInstances;
+            return this;
+        }
+
+        public ArenaPoolSettings build() {
+            checkArgument(this.instances > 0, "instances must be positive");
+            checkArgument(this.lowWatermark >= 0, "low watermark cannot be negative");
+            checkArgument(this.maxInstances >= this.instances, "max instances cannot be less than instances");
+            checkArgument(this.lowWatermark <= this.maxInstances, "low watermark cannot exceed max instances");
+
+            return new ArenaPoolSettings(this.instances, this.lowWatermark, this.maxInstances);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.arena;
+
+import com.google.common.collect.ImmutableList;
+import dev.kafein.multiduels.common.components.LocationComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class ArenaTemplate {
+    private final String name;
+    private final int width;
+    private final int height;
+    private final int length;
+    private final List<LocationComponent> spawns;
+
+    public ArenaTemplate(String name, int width, int height, int length, List<LocationComponent> spawns) {
+        checkArgument(!name.isEmpty(), "name cannot be empty");
+        checkArgument(width > 0 && height > 0 && length > 0, "dimensions must be positive");
+
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        this.spawns = ImmutableList.copyOf(spawns);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public List<LocationComponent> getSpawns() {
+        return this.spawns;
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= 0 && x < this.width
+                && y >= 0 && y < this.height
+                && z >= 0 && z < this.length;
+    }
+
+    @Override
+    public String toString() {
+        return "ArenaTemplate{" +
+                "name='" + this.name + '\'' +
+                ", width=" + this.width +
+                ", height=" + this.height +
+                ", length=" + this.length +
+                '}';
+    }
+}
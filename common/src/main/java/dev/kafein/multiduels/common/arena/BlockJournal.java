@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.arena;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public final class BlockJournal {
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private final Map<Long, String> originals;
+
+    public BlockJournal() {
+        this.originals = Maps.newLinkedHashMap();
+    }
+
+    public synchronized boolean record(int x, int y, int z, @NotNull String original) {
+        return this.originals.putIfAbsent(pack(x, y, z), original) == null;
+    }
+
+    public synchronized boolean isRecorded(int x, int y, int z) {
+        return this.originals.containsKey(pack(x, y, z));
+    }
+
+    public synchronized List<Change> drain() {
+        if (this.originals.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Change> changes = Lists.newArrayListWithCapacity(this.originals.size());
+        for (Map.Entry<Long, String> entry : this.originals.entrySet()) {
+            long packed = entry.getKey();
+            changes.add(new Change(unpackX(packed), unpackY(packed), unpackZ(packed), entry.getValue()));
+        }
+        this.originals.clear();
+        return changes;
+    }
+
+    public synchronized void clear() {
+        this.originals.clear();
+    }
+
+    public synchronized int size() {
+        return this.originals.size();
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((x & COORDINATE_MASK) << (COORDINATE_BITS * 2))
+                | ((y & COORDINATE_MASK) << COORDINATE_BITS)
+                | (z & COORDINATE_MASK);
+    }
+
+    private static int unpackX(long packed) {
+        return signExtend(packed >>> (COORDINATE_BITS * 2));
+    }
+
+    private static int unpackY(long packed) {
+        return signExtend(packed >>> COORDINATE_BITS);
+    }
+
+    private static int unpackZ(long packed) {
+        return signExtend(packed);
+    }
+
+    private static int signExtend(long value) {
+        int shift = 64 - COORDINATE_BITS;
+        return (int) (((value & COORDINATE_MASK) << shift) >> shift);
+    }
+
+    public static final class Change {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final String original;
+
+        public Change(int x, int y, int z, String original) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.original = original;
+        }
+
+        public int getX() {
+            return this.x;
+        }
+
+        public int getY() {
+            return this.y;
+        }
+
+        public int getZ() {
+            return this.z;
+        }
+
+        public String getOriginal() {
+            return this.original;
+        }
+    }
+}
@@ -24,5 +24,218 @@
 
 package dev.kafein.multiduels.common.game;
 
+import com.google.common.collect.Lists;
+import dev.kafein.multiduels.common.game.state.GameStates;
+import dev.kafein.multiduels.common.game.state.State;
+import dev.kafein.multiduels.common.game.state.StateTransitions;
+import dev.kafein.multiduels.common.game.state.StateTrigger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 public abstract class AbstractGame implements Game {
+    private final UUID id;
+    private final StateTransitions transitions;
+    private final long[] durations;
+    private final List<Team> teams;
+
+    private volatile State state;
+    private volatile boolean running;
+    private long stateTicks;
+    private @Nullable GameResult result;
+    private @Nullable Team winner;
+
+    protected AbstractGame(UUID id) {
+        this(id, StateTransitions.defaults());
+    }
+
+    protected AbstractGame(UUID id, StateTransitions transitions) {
+        this.id = id;
+        this.transitions = transitions;
+        this.durations = new long[GameStates.count()];
+        for (State state : GameStates.values()) {
+            this.durations[state.getId()] = state.getDefaultDuration();
+        }
+        this.teams = Lists.newArrayList();
+        this.state = GameStates.WAITING;
+    }
+
+    @Override
+    public @NotNull UUID getId() {
+        return this.id;
+    }
+
+    @Override
+    public void start() {
+        if (this.running) {
+            return;
+        }
+
+        this.running = true;
+        this.stateTicks = 0;
+        this.state.onEnter(this);
+        onStateEnter(this.state);
+    }
+
+    @Override
+    public void stop() {
+        if (!this.running) {
+            return;
+        }
+
+        this.running = false;
+        this.state.onExit(this);
+        onStateExit(this.state);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public void tick() {
+        if (!this.running) {
+            return;
+        }
+
+        State state = this.state;
+        long ticks = ++this.stateTicks;
+        state.onTick(this, ticks);
+        onStateTick(state, ticks);
+
+        long duration = this.durations[state.getId()];
+        if (duration > 0 && ticks >= duration && this.state == state) {
+            fire(StateTrigger.TIMEOUT);
+        }
+    }
+
+    @Override
+    public @NotNull State getState() {
+        return this.state;
+    }
+
+    @Override
+    public void setState(@NotNull State state) {
+        State previous = this.state;
+        if (this.running) {
+            previous.onExit(this);
+            onStateExit(previous);
+        }
+
+        this.state = state;
+        this.stateTicks = 0;
+
+        if (this.running) {
+            state.onEnter(this);
+            onStateEnter(state);
+        }
+    }
+
+    @Override
+    public boolean fire(@NotNull StateTrigger trigger) {
+        State next = this.transitions.next(this.state, trigger);
+        if (next == null) {
+            return false;
+        }
+
+        setState(next);
+        return true;
+    }
+
+    public boolean finish(@NotNull GameResult result, @Nullable Team winner) {
+        if (!this.transitions.canFire(this.state, StateTrigger.DECIDED)) {
+            return false;
+        }
+
+        this.result = result;
+        this.winner = winner;
+        return fire(StateTrigger.DECIDED);
+    }
+
+    public boolean cancel() {
+        if (!this.transitions.canFire(this.state, StateTrigger.CANCEL)) {
+            return false;
+        }
+
+        this.result = GameResult.CANCELLED;
+        this.winner = null;
+        return fire(StateTrigger.CANCEL);
+    }
+
+    public void reset() {
+        this.result = null;
+        this.winner = null;
+        for (Team team : this.teams) {
+            team.revive();
+        }
+        fire(StateTrigger.RESET);
+    }
+
+    @Override
+    public long getStateTicks() {
+        return this.stateTicks;
+    }
+
+    public long getRemainingTicks() {
+        long duration = this.durations[this.state.getId()];
+        return duration <= 0 ? -1 : Math.max(0, duration - this.stateTicks);
+    }
+
+    public long getDuration(@NotNull State state) {
+        return this.durations[state.getId()];
+    }
+
+    public void setDuration(@NotNull State state, long ticks) {
+        checkArgument(ticks >= 0, "duration cannot be negative");
+        this.durations[state.getId()] = ticks;
+    }
+
+    public StateTransitions getTransitions() {
+        return this.transitions;
+    }
+
+    @Override
+    public @Nullable GameResult getResult() {
+        if (this.result == null && this.state == GameStates.ENDING) {
+            return GameResult.TIMEOUT;
+        }
+        return this.result;
+    }
+
+    public @Nullable Team getWinner() {
+        return this.winner;
+    }
+
+    public List<Team> getTeams() {
+        return Collections.unmodifiableList(this.teams);
+    }
+
+    public void addTeam(@NotNull Team team) {
+        this.teams.add(team);
+    }
+
+    public @Nullable Team getTeam(@NotNull UUID uniqueId) {
+        for (int i = 0; i < this.teams.size(); i++) {
+            Team team = this.teams.get(i);
+            if (team.isMember(uniqueId)) {
+                return team;
+            }
+        }
+        return null;
+    }
+
+    protected void onStateEnter(@NotNull State state) {
+    }
+
+    protected void onStateTick(@NotNull State state, long ticks) {
+    }
+
+    protected void onStateExit(@NotNull State state) {
+    }
 }
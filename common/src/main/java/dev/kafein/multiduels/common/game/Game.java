@@ -25,14 +25,30 @@
 package dev.kafein.multiduels.common.game;
 
 import dev.kafein.multiduels.common.game.state.State;
+import dev.kafein.multiduels.common.game.state.StateTrigger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
 
 public interface Game {
+    @NotNull UUID getId();
+
     void start();
 
     void stop();
 
+    boolean isRunning();
+
+    void tick();
+
     @NotNull State getState();
 
     void setState(@NotNull State state);
+
+    boolean fire(@NotNull StateTrigger trigger);
+
+    long getStateTicks();
+
+    @Nullable GameResult getResult();
 }
@@ -25,4 +25,8 @@
 package dev.kafein.multiduels.common.game;
 
 public enum GameResult {
+    WIN,
+    DRAW,
+    TIMEOUT,
+    CANCELLED
 }
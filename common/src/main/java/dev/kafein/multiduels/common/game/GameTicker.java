@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.game;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class GameTicker implements Runnable {
+    private static final Game[] EMPTY = new Game[0];
+
+    private final Object lock;
+    private final LongAdder failureCount;
+
+    private volatile Game[] games;
+    private volatile long tickCount;
+
+    public GameTicker() {
+        this.lock = new Object();
+        this.failureCount = new LongAdder();
+        this.games = EMPTY;
+    }
+
+    @Override
+    public void run() {
+        Game[] games = this.games;
+        for (int i = 0; i < games.length; i++) {
+            try {
+                games[i].tick();
+            } catch (RuntimeException e) {
+                this.failureCount.increment();
+
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        this.tickCount++;
+    }
+
+    public boolean register(@NotNull Game game) {
+        synchronized (this.lock) {
+            Game[] games = this.games;
+            for (Game registered : games) {
+                if (registered == game) {
+                    return false;
+                }
+            }
+
+            Game[] updated = Arrays.copyOf(games, games.length + 1);
+            updated[games.length] = game;
+            this.games = updated;
+            return true;
+        }
+    }
+
+    public boolean unregister(@NotNull Game game) {
+        synchronized (this.lock) {
+            Game[] games = this.games;
+            for (int i = 0; i < games.length; i++) {
+                if (games[i] != game) {
+                    continue;
+                }
+
+                if (games.length == 1) {
+                    this.games = EMPTY;
+                    return true;
+                }
+
+                Game[] updated = new Game[games.length - 1];
+                System.arraycopy(games, 0, updated, 0, i);
+                System.arraycopy(games, i + 1, updated, i, games.length - i - 1);
+                this.games = updated;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public List<Game> getGames() {
+        return Collections.unmodifiableList(Arrays.asList(this.games));
+    }
+
+    public int size() {
+        return this.games.length;
+    }
+
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
+    public long getFailureCount() {
+        return this.failureCount.sum();
+    }
+}
@@ -24,5 +24,83 @@
 
 package dev.kafein.multiduels.common.game;
 
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
 public class Team {
+    private final int id;
+    private final String name;
+    private final Set<UUID> members;
+    private final Set<UUID> alive;
+
+    public Team(int id, String name) {
+        this.id = id;
+        this.name = name;
+        this.members = Sets.newConcurrentHashSet();
+        this.alive = Sets.newConcurrentHashSet();
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Set<UUID> getMembers() {
+        return Collections.unmodifiableSet(this.members);
+    }
+
+    public Set<UUID> getAlive() {
+        return Collections.unmodifiableSet(this.alive);
+    }
+
+    public void addMember(@NotNull UUID uniqueId) {
+        this.members.add(uniqueId);
+        this.alive.add(uniqueId);
+    }
+
+    public void removeMember(@NotNull UUID uniqueId) {
+        this.members.remove(uniqueId);
+        this.alive.remove(uniqueId);
+    }
+
+    public boolean isMember(@NotNull UUID uniqueId) {
+        return this.members.contains(uniqueId);
+    }
+
+    public boolean isAlive(@NotNull UUID uniqueId) {
+        return this.alive.contains(uniqueId);
+    }
+
+    public boolean eliminate(@NotNull UUID uniqueId) {
+        return this.alive.remove(uniqueId);
+    }
+
+    public boolean isEliminated() {
+        return this.alive.isEmpty();
+    }
+
+    public void revive() {
+        this.alive.addAll(this.members);
+    }
+
+    public int size() {
+        return this.members.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Team{" +
+                "id=" + this.id +
+                ", name='" + this.name + '\'' +
+                ", members=" + this.members +
+                ", alive=" + this.alive +
+                '}';
+    }
 }
@@ -24,5 +24,49 @@
 
 package dev.kafein.multiduels.common.game.state;
 
+import dev.kafein.multiduels.common.game.Game;
+import org.jetbrains.annotations.NotNull;
+
 public abstract class AbstractState implements State {
+    private final int id;
+    private final String name;
+    private final long defaultDuration;
+
+    protected AbstractState(int id, String name, long defaultDuration) {
+        this.id = id;
+        this.name = name;
+        this.defaultDuration = defaultDuration;
+    }
+
+    @Override
+    public int getId() {
+        return this.id;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return this.name;
+    }
+
+    @Override
+    public long getDefaultDuration() {
+        return this.defaultDuration;
+    }
+
+    @Override
+    public void onEnter(@NotNull Game game) {
+    }
+
+    @Override
+    public void onTick(@NotNull Game game, long ticks) {
+    }
+
+    @Override
+    public void onExit(@NotNull Game game) {
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.game.state;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class GameStates {
+    public static final State WAITING = new DefaultState(0, "waiting", 0);
+    public static final State COUNTDOWN = new DefaultState(1, "countdown", 100);
+    public static final State FIGHTING = new DefaultState(2, "fighting", 6000);
+    public static final State ENDING = new DefaultState(3, "ending", 100);
+    public static final State RESET = new DefaultState(4, "reset", 0);
+
+    private static final State[] VALUES = {WAITING, COUNTDOWN, FIGHTING, ENDING, RESET};
+
+    private GameStates() {}
+
+    public static State[] values() {
+        return VALUES.clone();
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    @NotNull
+    public static State byId(int id) {
+        if (id < 0 || id >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown state id: " + id);
+        }
+        return VALUES[id];
+    }
+
+    @NotNull
+    public static State fromName(@NotNull String name) {
+        for (State state : VALUES) {
+            if (state.getName().equalsIgnoreCase(name)) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("Unknown state: " + name);
+    }
+
+    private static final class DefaultState extends AbstractState {
+        private DefaultState(int id, String name, long defaultDuration) {
+            super(id, name, defaultDuration);
+        }
+    }
+}
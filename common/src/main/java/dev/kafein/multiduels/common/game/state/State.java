@@ -24,6 +24,19 @@
 
 package dev.kafein.multiduels.common.game.state;
 
+import dev.kafein.multiduels.common.game.Game;
+import org.jetbrains.annotations.NotNull;
+
 public interface State {
+    int getId();
+
+    @NotNull String getName();
+
+    long getDefaultDuration();
+
+    void onEnter(@NotNull Game game);
+
+    void onTick(@NotNull Game game, long ticks);
 
+    void onExit(@NotNull Game game);
 }
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.game.state;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class StateTransitions {
+    private static final StateTrigger[] TRIGGERS = StateTrigger.values();
+
+    private static final StateTransitions DEFAULTS = newBuilder()
+            .add(GameStates.WAITING, StateTrigger.READY, GameStates.COUNTDOWN)
+            .add(GameStates.WAITING, StateTrigger.CANCEL, GameStates.RESET)
+            .add(GameStates.COUNTDOWN, StateTrigger.UNREADY, GameStates.WAITING)
+            .add(GameStates.COUNTDOWN, StateTrigger.TIMEOUT, GameStates.FIGHTING)
+            .add(GameStates.COUNTDOWN, StateTrigger.CANCEL, GameStates.ENDING)
+            .add(GameStates.FIGHTING, StateTrigger.DECIDED, GameStates.ENDING)
+            .add(GameStates.FIGHTING, StateTrigger.TIMEOUT, GameStates.ENDING)
+            .add(GameStates.FIGHTING, StateTrigger.CANCEL, GameStates.ENDING)
+            .add(GameStates.ENDING, StateTrigger.TIMEOUT, GameStates.RESET)
+            .add(GameStates.RESET, StateTrigger.RESET, GameStates.WAITING)
+            .build();
+
+    private final State[][] table;
+
+    private StateTransitions(State[][] table) {
+        this.table = table;
+    }
+
+    @NotNull
+    public static StateTransitions defaults() {
+        return DEFAULTS;
+    }
+
+    public @Nullable State next(@NotNull State current, @NotNull StateTrigger trigger) {
+        int id = current.getId();
+        if (id < 0 || id >= this.table.length) {
+            return null;
+        }
+        return this.table[id][trigger.ordinal()];
+    }
+
+    public boolean canFire(@NotNull State current, @NotNull StateTrigger trigger) {
+        return next(current, trigger) != null;
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @NotNull
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (int i = 0; i < this.table.length; i++) {
+            builder.table[i] = this.table[i].clone();
+        }
+        return builder;
+    }
+
+    public static final class Builder {
+        private final State[][] table = new State[GameStates.count()][TRIGGERS.length];
+
+        private Builder() {
+        }
+
+        public Builder add(@NotNull State from, @NotNull StateTrigger trigger, @NotNull State to) {
+            checkArgument(from.getId() >= 0 && from.getId() < this.table.length, "Unknown state " + from);
+            checkArgument(to.getId() >= 0 && to.getId() < this.table.length, "Unknown state " + to);
+
+            this.table[from.getId()][trigger.ordinal()] = to;
+            return this;
+        }
+
+        public Builder remove(@NotNull State from, @NotNull StateTrigger trigger) {
+            this.table[from.getId()][trigger.ordinal()] = null;
+            return this;
+        }
+
+        public StateTransitions build() {
+            State[][] table = new State[this.table.length][];
+            for (int i = 0; i < this.table.length; i++) {
+                table[i] = this.table[i].clone();
+            }
+            return new StateTransitions(table);
+        }
+    }
+}
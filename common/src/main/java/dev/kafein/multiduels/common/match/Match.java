@@ -24,5 +24,82 @@
 
 package dev.kafein.multiduels.common.match;
 
-public class Match {
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.game.AbstractGame;
+import dev.kafein.multiduels.common.game.Team;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+public class Match extends AbstractGame {
+    private final String kit;
+    private final String arena;
+    private final long createdAt;
+    private final Map<UUID, MatchPlayer> players;
+    private final Collection<MatchPlayer> playersView;
+
+    public Match(UUID id, String kit, String arena) {
+        super(id);
+        this.kit = kit;
+        this.arena = arena;
+        this.createdAt = System.currentTimeMillis();
+        this.players = Maps.newConcurrentMap();
+        this.playersView = Collections.unmodifiableCollection(this.players.values());
+    }
+
+    public String getKit() {
+        return this.kit;
+    }
+
+    public String getArena() {
+        return this.arena;
+    }
+
+    public long getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public Collection<MatchPlayer> getPlayers() {
+        return this.playersView;
+    }
+
+    public @Nullable MatchPlayer getPlayer(@NotNull UUID uniqueId) {
+        return this.players.get(uniqueId);
+    }
+
+    public boolean hasPlayer(@NotNull UUID uniqueId) {
+        return this.players.containsKey(uniqueId);
+    }
+
+    MatchPlayer addPlayer(@NotNull UUID uniqueId, @Nullable Team team) {
+        MatchPlayer player = new MatchPlayer(uniqueId, this, team);
+        this.players.put(uniqueId, player);
+        if (team != null) {
+            team.addMember(uniqueId);
+        }
+        return player;
+    }
+
+    @Nullable MatchPlayer removePlayer(@NotNull UUID uniqueId) {
+        MatchPlayer player = this.players.remove(uniqueId);
+        if (player != null && player.getTeam() != null) {
+            player.getTeam().removeMember(uniqueId);
+        }
+        return player;
+    }
+
+    @Override
+    public String toString() {
+        return "Match{" +
+                "id=" + getId() +
+                ", kit='" + this.kit + '\'' +
+                ", arena='" + this.arena + '\'' +
+                ", state=" + getState() +
+                ", players=" + this.players.keySet() +
+                '}';
+    }
 }
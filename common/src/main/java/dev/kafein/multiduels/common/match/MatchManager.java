@@ -24,5 +24,265 @@
 
 package dev.kafein.multiduels.common.match;
 
-public class MatchManager {
+import dev.kafein.multiduels.common.game.GameTicker;
+import dev.kafein.multiduels.common.game.Team;
+import dev.kafein.multiduels.common.manager.Manager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class MatchManager implements Manager<UUID, Match> {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final @Nullable GameTicker ticker;
+    private final ConcurrentHashMap<UUID, Match> matches;
+    private final ConcurrentHashMap<UUID, MatchPlayer> players;
+    private final ConcurrentHashMap<String, Match> arenas;
+
+    private final Map<UUID, Match> matchesView;
+    private final Collection<UUID> keysView;
+    private final Collection<Match> valuesView;
+
+    public MatchManager() {
+        this(null);
+    }
+
+    public MatchManager(@Nullable GameTicker ticker) {
+        this.ticker = ticker;
+        this.matches = new ConcurrentHashMap<>(DEFAULT_CAPACITY);
+        this.players = new ConcurrentHashMap<>(DEFAULT_CAPACITY * 2);
+        this.arenas = new ConcurrentHashMap<>(DEFAULT_CAPACITY);
+        this.matchesView = Collections.unmodifiableMap(this.matches);
+        this.keysView = Collections.unmodifiableSet(this.matches.keySet());
+        this.valuesView = Collections.unmodifiableCollection(this.matches.values());
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void shutdown() {
+        for (Match match : this.matches.values()) {
+            match.stop();
+        }
+        clear();
+    }
+
+    @Override
+    public Map<UUID, Match> getMap() {
+        return this.matchesView;
+    }
+
+    @Override
+    public Collection<UUID> getKeys() {
+        return this.keysView;
+    }
+
+    @Override
+    public Collection<Match> getValues() {
+        return this.valuesView;
+    }
+
+    public void forEach(@NotNull Consumer<? super Match> action) {
+        this.matches.values().forEach(action);
+    }
+
+    @Override
+    public Optional<Match> find(@NotNull UUID key) {
+        return Optional.ofNullable(this.matches.get(key));
+    }
+
+    @Override
+    public @Nullable Match get(@NotNull UUID key) {
+        return this.matches.get(key);
+    }
+
+    public @Nullable Match getByPlayer(@NotNull UUID uniqueId) {
+        MatchPlayer player = this.players.get(uniqueId);
+        return player == null ? null : player.getMatch();
+    }
+
+    public @Nullable MatchPlayer getPlayer(@NotNull UUID uniqueId) {
+        return this.players.get(uniqueId);
+    }
+
+    public @Nullable Match getByArena(@NotNull String arena) {
+        return this.arenas.get(arena);
+    }
+
+    public boolean isPlaying(@NotNull UUID uniqueId) {
+        return this.players.containsKey(uniqueId);
+    }
+
+    public boolean isArenaInUse(@NotNull String arena) {
+        return this.arenas.containsKey(arena);
+    }
+
+    @Override
+    public void putAll(@NotNull Map<UUID, Match> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public Match put(@NotNull UUID key, @NotNull Match value) {
+        checkArgument(key.equals(value.getId()), "Key %s does not match the id of match %s", key, value.getId());
+
+        Match current = this.matches.get(key);
+        claimArena(value);
+
+        List<MatchPlayer> claimed = new ArrayList<>(value.getPlayers().size());
+        for (MatchPlayer player : value.getPlayers()) {
+            MatchPlayer conflict = claimPlayer(player);
+            if (conflict != null) {
+                rollback(value, claimed, current);
+                throw new IllegalStateException("Player " + player.getUniqueId() + " is already in match " + conflict.getMatch().getId());
+            }
+            claimed.add(player);
+        }
+
+        Match previous = this.matches.put(key, value);
+        if (previous != null && previous != value) {
+            deindex(previous);
+        }
+
+        if (this.ticker != null) {
+            this.ticker.register(value);
+        }
+        return previous;
+    }
+
+    public MatchPlayer addPlayer(@NotNull Match match, @NotNull UUID uniqueId, @Nullable Team team) {
+        MatchPlayer existing = this.players.get(uniqueId);
+        if (existing != null && existing.getMatch() != match) {
+            throw new IllegalStateException("Player " + uniqueId + " is already in match " + existing.getMatch().getId());
+        }
+
+        MatchPlayer player = match.addPlayer(uniqueId, team);
+        if (this.matches.get(match.getId()) == match) {
+            MatchPlayer conflict = claimPlayer(player);
+            if (conflict != null) {
+                match.removePlayer(uniqueId);
+                throw new IllegalStateException("Player " + uniqueId + " is already in match " + conflict.getMatch().getId());
+            }
+        }
+        return player;
+    }
+
+    public @Nullable MatchPlayer removePlayer(@NotNull UUID uniqueId) {
+        MatchPlayer player = this.players.remove(uniqueId);
+        if (player != null) {
+            player.getMatch().removePlayer(uniqueId);
+        }
+        return player;
+    }
+
+    @Override
+    public void remove(@NotNull UUID key) {
+        Match match = this.matches.remove(key);
+        if (match != null) {
+            deindex(match);
+        }
+    }
+
+    @Override
+    public boolean removeIf(@NotNull Predicate<? super Match> filter) {
+        boolean removed = false;
+        Iterator<Match> iterator = this.matches.values().iterator();
+        while (iterator.hasNext()) {
+            Match match = iterator.next();
+            if (filter.test(match)) {
+                iterator.remove();
+                deindex(match);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        removeIf(match -> true);
+    }
+
+    @Override
+    public boolean contains(@NotNull UUID key) {
+        return this.matches.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.matches.size();
+    }
+
+    public int getPlayerCount() {
+        return this.players.size();
+    }
+
+    private void claimArena(@NotNull Match match) {
+        while (true) {
+            Match occupant = this.arenas.putIfAbsent(match.getArena(), match);
+            if (occupant == null || occupant == match) {
+                return;
+            }
+            if (!occupant.getId().equals(match.getId())) {
+                throw new IllegalStateException("Arena " + match.getArena() + " is already used by match " + occupant.getId());
+            }
+            if (this.arenas.replace(match.getArena(), occupant, match)) {
+                return;
+            }
+        }
+    }
+
+    private @Nullable MatchPlayer claimPlayer(@NotNull MatchPlayer player) {
+        while (true) {
+            MatchPlayer current = this.players.putIfAbsent(player.getUniqueId(), player);
+            if (current == null || current == player) {
+                return null;
+            }
+            if (!current.getMatch().getId().equals(player.getMatch().getId())) {
+                return current;
+            }
+            if (this.players.replace(player.getUniqueId(), current, player)) {
+                return null;
+            }
+        }
+    }
+
+    private void rollback(@NotNull Match match, @NotNull List<MatchPlayer> claimed, @Nullable Match current) {
+        for (MatchPlayer player : claimed) {
+            this.players.remove(player.getUniqueId(), player);
+        }
+        this.arenas.remove(match.getArena(), match);
+
+        if (current != null) {
+            this.arenas.putIfAbsent(current.getArena(), current);
+            for (MatchPlayer player : current.getPlayers()) {
+                this.players.putIfAbsent(player.getUniqueId(), player);
+            }
+        }
+    }
+
+    private void deindex(@NotNull Match match) {
+        this.arenas.remove(match.getArena(), match);
+        for (MatchPlayer player : match.getPlayers()) {
+            this.players.remove(player.getUniqueId(), player);
+        }
+        if (this.ticker != null) {
+            this.ticker.unregister(match);
+        }
+    }
 }
@@ -24,5 +24,44 @@
 
 package dev.kafein.multiduels.common.match;
 
+import dev.kafein.multiduels.common.game.Team;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
 public class MatchPlayer {
+    private final UUID uniqueId;
+    private final Match match;
+    private final @Nullable Team team;
+
+    public MatchPlayer(UUID uniqueId, Match match, @Nullable Team team) {
+        this.uniqueId = uniqueId;
+        this.match = match;
+        this.team = team;
+    }
+
+    public UUID getUniqueId() {
+        return this.uniqueId;
+    }
+
+    public Match getMatch() {
+        return this.match;
+    }
+
+    public @Nullable Team getTeam() {
+        return this.team;
+    }
+
+    public boolean isAlive() {
+        return this.team == null || this.team.isAlive(this.uniqueId);
+    }
+
+    @Override
+    public String toString() {
+        return "MatchPlayer{" +
+                "uniqueId=" + this.uniqueId +
+                ", match=" + this.match.getId() +
+                ", team=" + (this.team == null ? null : this.team.getName()) +
+                '}';
+    }
 }
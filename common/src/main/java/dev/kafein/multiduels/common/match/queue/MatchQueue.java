@@ -0,0 +1,361 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.RedisClient;
+import dev.kafein.multiduels.common.redis.RedisKeys;
+import dev.kafein.multiduels.common.redis.RedisScript;
+import dev.kafein.multiduels.common.redis.message.MessageListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class MatchQueue {
+    public static final String POPPED_CHANNEL_PREFIX = "multiduels:queue:popped:";
+
+    private static final char POPPED_SEPARATOR = ',';
+
+    private static final RedisScript ENQUEUE_SCRIPT = RedisScript.of("queue-enqueue",
+            "if redis.call('hsetnx', KEYS[3], ARGV[1], ARGV[4]) == 0 then\n" +
+            "    return 0\n" +
+            "end\n" +
+            "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1])\n" +
+            "redis.call('zadd', KEYS[2], ARGV[3], ARGV[1])\n" +
+            "redis.call('zadd', KEYS[4], ARGV[3], ARGV[5])\n" +
+            "return 1");
+    private static final RedisScript REMOVE_SCRIPT = RedisScript.of("queue-remove",
+            "if redis.call('hdel', KEYS[3], ARGV[1]) == 0 then\n" +
+            "    return 0\n" +
+            "end\n" +
+            "redis.call('zrem', KEYS[1], ARGV[1])\n" +
+            "redis.call('zrem', KEYS[2], ARGV[1])\n" +
+            "return 1");
+    private static final RedisScript POP_PAIRS_SCRIPT = RedisScript.of("queue-pop-pairs",
+            "local now = tonumber(ARGV[1])\n" +
+            "local base = tonumber(ARGV[2])\n" +
+            "local perSecond = tonumber(ARGV[3])\n" +
+            "local maxRange = tonumber(ARGV[4])\n" +
+            "local limit = tonumber(ARGV[5])\n" +
+            "local maxPairs = tonumber(ARGV[6])\n" +
+            "local deadline = now - tonumber(ARGV[8])\n" +
+            "redis.call('zadd', KEYS[4], now, ARGV[7])\n" +
+            "redis.call('zremrangebyscore', KEYS[4], '-inf', '(' .. deadline)\n" +
+            "local nodes = {}\n" +
+            "local function alive(player)\n" +
+            "    local entry = redis.call('hget', KEYS[3], player)\n" +
+            "    local node = entry and string.match(entry, '^([^|]*)|')\n" +
+            "    if node then\n" +
+            "        if nodes[node] == nil then\n" +
+            "            nodes[node] = redis.call('zscore', KEYS[4], node) ~= false\n" +
+            "        end\n" +
+            "        if nodes[node] then\n" +
+            "            return true\n" +
+            "        end\n" +
+            "    end\n" +
+            "    redis.call('zrem', KEYS[1], player)\n" +
+            "    redis.call('zrem', KEYS[2], player)\n" +
+            "    redis.call('hdel', KEYS[3], player)\n" +
+            "    return false\n" +
+            "end\n" +
+            "local result = {}\n" +
+            "local taken = {}\n" +
+            "local oldest = redis.call('zrange', KEYS[2], 0, limit - 1, 'WITHSCORES')\n" +
+            "for i = 1, #oldest, 2 do\n" +
+            "    if #result >= maxPairs * 4 then\n" +
+            "        break\n" +
+            "    end\n" +
+            "    local player = oldest[i]\n" +
+            "    if not taken[player] and alive(player) then\n" +
+            "        local rating = tonumber(redis.call('zscore', KEYS[1], player))\n" +
+            "        if rating then\n" +
+            "            local waited = math.max(0, now - tonumber(oldest[i + 1]))\n" +
+            "            local range = math.min(maxRange, base + math.floor(waited / 1000) * perSecond)\n" +
+            "            local candidates = redis.call('zrangebyscore', KEYS[1], rating - range, rating + range, 'WITHSCORES', 'LIMIT', 0, limit)\n" +
+            "            local best, bestDiff\n" +
+            "            for j = 1, #candidates, 2 do\n" +
+            "                local candidate = candidates[j]\n" +
+            "                if candidate ~= player and not taken[candidate] and alive(candidate) then\n" +
+            "                    local diff = math.abs(tonumber(candidates[j + 1]) - rating)\n" +
+            "                    if not best or diff < bestDiff then\n" +
+            "                        best = candidate\n" +
+            "                        bestDiff = diff\n" +
+            "                    end\n" +
+            "                end\n" +
+            "            end\n" +
+            "            if best then\n" +
+            "                local entries = redis.call('hmget', KEYS[3], player, best)\n" +
+            "                redis.call('zrem', KEYS[1], player, best)\n" +
+            "                redis.call('zrem', KEYS[2], player, best)\n" +
+            "                redis.call('hdel', KEYS[3], player, best)\n" +
+            "                taken[player] = true\n" +
+            "                taken[best] = true\n" +
+            "                result[#result + 1] = player\n" +
+            "                result[#result + 1] = entries[1]\n" +
+            "                result[#result + 1] = best\n" +
+            "                result[#result + 1] = entries[2]\n" +
+            "            end\n" +
+            "        end\n" +
+            "    end\n" +
+            "end\n" +
+            "return result");
+
+    private final RedisClient client;
+    private final MatchQueueSettings settings;
+    private final String nodeId;
+    private final MatchmakingEngine localEngine;
+
+    private final LongAdder enqueuedCount;
+    private final LongAdder localPairCount;
+    private final LongAdder remotePairCount;
+    private final LongAdder poppedRemotelyCount;
+
+    public MatchQueue(RedisClient client) {
+        this(client, MatchQueueSettings.defaults());
+    }
+
+    public MatchQueue(RedisClient client, MatchQueueSettings settings) {
+        this.client = client;
+        this.settings = settings;
+        this.nodeId = client.getOptions().getNodeId();
+        this.localEngine = new MatchmakingEngine(settings);
+        this.enqueuedCount = new LongAdder();
+        this.localPairCount = new LongAdder();
+        this.remotePairCount = new LongAdder();
+        this.poppedRemotelyCount = new LongAdder();
+
+        client.getScripts().register(ENQUEUE_SCRIPT);
+        client.getScripts().register(REMOVE_SCRIPT);
+        client.getScripts().register(POP_PAIRS_SCRIPT);
+
+        client.getOperations().subscribe(client.getWorkerPool(), poppedChannel(this.nodeId),
+                MessageListener.raw((redis, envelope) -> onPopped(envelope.getPayloadAsString())));
+    }
+
+    @NotNull
+    public static String poppedChannel(@NotNull String nodeId) {
+        return POPPED_CHANNEL_PREFIX + nodeId;
+    }
+
+    public @Nullable QueuePair enqueue(@NotNull UUID playerId, @NotNull QueuePartition partition, int rating) {
+        checkArgument(!this.localEngine.contains(playerId), "Player " + playerId + " is already queued");
+
+        QueueEntry entry = new QueueEntry(playerId, partition, this.nodeId, rating, System.currentTimeMillis());
+        QueuePair pair = matchLocally(entry);
+        if (pair != null) {
+            this.localPairCount.increment();
+            return pair;
+        }
+
+        long added = this.client.getScripts().evalLong(ENQUEUE_SCRIPT, keys(partition), ImmutableList.of(
+                playerId.toString(), Integer.toString(rating), Long.toString(entry.getJoinedAt()), entry.encode(), this.nodeId));
+        checkArgument(added == 1, "Player " + playerId + " is already queued on another node");
+
+        this.localEngine.add(entry);
+        this.enqueuedCount.increment();
+        return null;
+    }
+
+    public boolean dequeue(@NotNull UUID playerId) {
+        QueueEntry entry = this.localEngine.remove(playerId);
+        return entry != null && remove(entry);
+    }
+
+    public List<QueuePair> poll(@NotNull QueuePartition partition) {
+        List<String> result = this.client.getScripts().evalList(POP_PAIRS_SCRIPT, keys(partition), ImmutableList.of(
+                Long.toString(System.currentTimeMillis()),
+                Integer.toString(this.settings.getBaseRange()),
+                Integer.toString(this.settings.getRangePerSecond()),
+                Integer.toString(this.settings.getMaxRange()),
+                Integer.toString(this.settings.getScanLimit()),
+                Integer.toString(this.settings.getBatchSize()),
+                this.nodeId,
+                Long.toString(this.settings.getEntryTimeout())));
+        if (result.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<QueuePair> pairs = Lists.newArrayListWithCapacity(result.size() / 4);
+        Map<String, StringBuilder> popped = Maps.newHashMap();
+        for (int i = 0; i + 3 < result.size(); i += 4) {
+            QueueEntry first = QueueEntry.decode(UUID.fromString(result.get(i)), partition, result.get(i + 1));
+            QueueEntry second = QueueEntry.decode(UUID.fromString(result.get(i + 2)), partition, result.get(i + 3));
+            if (first == null || second == null) {
+                continue;
+            }
+
+            QueuePair pair = new QueuePair(first, second, false);
+            acknowledge(pair);
+            pairs.add(pair);
+
+            collectPopped(popped, first);
+            collectPopped(popped, second);
+        }
+
+        popped.forEach((nodeId, players) -> this.client.getOperations().publish(poppedChannel(nodeId), null, players.toString()));
+
+        this.remotePairCount.add(pairs.size());
+        return pairs;
+    }
+
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (QueuePartition partition : this.localEngine.getPartitions()) {
+            this.client.getRedis().zadd(nodesKey(partition), now, this.nodeId);
+        }
+    }
+
+    public void acknowledge(@NotNull QueuePair pair) {
+        this.localEngine.remove(pair.getFirst());
+        this.localEngine.remove(pair.getSecond());
+    }
+
+    public void clear() {
+        for (QueueEntry entry : Lists.newArrayList(this.localEngine.getEntries())) {
+            if (this.localEngine.remove(entry)) {
+                remove(entry);
+            }
+        }
+    }
+
+    public long size(@NotNull QueuePartition partition) {
+        return this.client.getRedis().zcard(ratingKey(partition));
+    }
+
+    public boolean isQueued(@NotNull UUID playerId) {
+        return this.localEngine.contains(playerId);
+    }
+
+    public @Nullable QueueEntry getEntry(@NotNull UUID playerId) {
+        return this.localEngine.getEntry(playerId);
+    }
+
+    public List<QueueEntry> getLocalEntries(@NotNull QueuePartition partition) {
+        return this.localEngine.getEntries(partition);
+    }
+
+    public Set<QueuePartition> getLocalPartitions() {
+        return this.localEngine.getPartitions();
+    }
+
+    public MatchQueueSettings getSettings() {
+        return this.settings;
+    }
+
+    public long getEnqueuedCount() {
+        return this.enqueuedCount.sum();
+    }
+
+    public long getLocalPairCount() {
+        return this.localPairCount.sum();
+    }
+
+    public long getRemotePairCount() {
+        return this.remotePairCount.sum();
+    }
+
+    public long getPoppedRemotelyCount() {
+        return this.poppedRemotelyCount.sum();
+    }
+
+    private void collectPopped(@NotNull Map<String, StringBuilder> popped, @NotNull QueueEntry entry) {
+        if (this.nodeId.equals(entry.getNodeId())) {
+            return;
+        }
+
+        StringBuilder players = popped.get(entry.getNodeId());
+        if (players == null) {
+            popped.put(entry.getNodeId(), new StringBuilder(entry.getPlayerId().toString()));
+        } else {
+            players.append(POPPED_SEPARATOR).append(entry.getPlayerId());
+        }
+    }
+
+    private void onPopped(@NotNull String payload) {
+        int start = 0;
+        while (start < payload.length()) {
+            int end = payload.indexOf(POPPED_SEPARATOR, start);
+            if (end < 0) {
+                end = payload.length();
+            }
+
+            try {
+                if (this.localEngine.remove(UUID.fromString(payload.substring(start, end))) != null) {
+                    this.poppedRemotelyCount.increment();
+                }
+            } catch (IllegalArgumentException ignored) {
+            }
+            start = end + 1;
+        }
+    }
+
+    private @Nullable QueuePair matchLocally(@NotNull QueueEntry entry) {
+        while (true) {
+            QueueEntry opponent = this.localEngine.findOpponent(entry, entry.getJoinedAt());
+            if (opponent == null) {
+                return null;
+            }
+
+            if (this.localEngine.remove(opponent) && remove(opponent)) {
+                return new QueuePair(opponent, entry, true);
+            }
+        }
+    }
+
+    private boolean remove(@NotNull QueueEntry entry) {
+        return this.client.getScripts().evalLong(REMOVE_SCRIPT, keys(entry.getPartition()),
+                ImmutableList.of(entry.getPlayerId().toString())) == 1;
+    }
+
+    private static List<String> keys(@NotNull QueuePartition partition) {
+        return ImmutableList.of(ratingKey(partition), joinedKey(partition), entriesKey(partition), nodesKey(partition));
+    }
+
+    private static String ratingKey(@NotNull QueuePartition partition) {
+        return RedisKeys.queue(partition.getId(), "rating");
+    }
+
+    private static String joinedKey(@NotNull QueuePartition partition) {
+        return RedisKeys.queue(partition.getId(), "joined");
+    }
+
+    private static String entriesKey(@NotNull QueuePartition partition) {
+        return RedisKeys.queue(partition.getId(), "entries");
+    }
+
+    private static String nodesKey(@NotNull QueuePartition partition) {
+        return RedisKeys.queue(partition.getId(), "nodes");
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import org.jetbrains.annotations.NotNull;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class MatchQueueSettings {
+    private static final MatchQueueSettings DEFAULTS = newBuilder().build();
+
+    private final int baseRange;
+    private final int rangePerSecond;
+    private final int maxRange;
+    private final int scanLimit;
+    private final int batchSize;
+    private final long entryTimeout;
+
+    public MatchQueueSettings(int baseRange, int rangePerSecond, int maxRange, int scanLimit, int batchSize, long entryTimeout) {
+        this.baseRange = baseRange;
+        this.rangePerSecond = rangePerSecond;
+        this.maxRange = maxRange;
+        this.scanLimit = scanLimit;
+        this.batchSize = batchSize;
+        this.entryTimeout = entryTimeout;
+    }
+
+    @NotNull
+    public static MatchQueueSettings defaults() {
+        return DEFAULTS;
+    }
+
+    @NotNull
+    public static MatchQueueSettings fromNode(@NotNull ConfigurationNode node) {
+        return newBuilder()
+                .baseRange(node.getNode("base-range").getInt(DEFAULTS.baseRange))
+                .rangePerSecond(node.getNode("range-per-second").getInt(DEFAULTS.rangePerSecond))
+                .maxRange(node.getNode("max-range").getInt(DEFAULTS.maxRange))
+                .scanLimit(node.getNode("scan-limit").getInt(DEFAULTS.scanLimit))
+                .batchSize(node.getNode("batch-size").getInt(DEFAULTS.batchSize))
+                .entryTimeout(node.getNode("entry-timeout").getLong(DEFAULTS.entryTimeout))
+                .build();
+    }
+
+    public int getBaseRange() {
+        return this.baseRange;
+    }
+
+    public int getRangePerSecond() {
+        return this.rangePerSecond;
+    }
+
+    public int getMaxRange() {
+        return this.maxRange;
+    }
+
+    public int getScanLimit() {
+        return this.scanLimit;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public long getEntryTimeout() {
+        return this.entryTimeout;
+    }
+
+    public int getRange(long waitTime) {
+        long range = this.baseRange + waitTime / 1000 * this.rangePerSecond;
+        return (int) Math.min(this.maxRange, range);
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int baseRange = 100;
+        private int rangePerSecond = 10;
+        private int maxRange = 1000;
+        private int scanLimit = 32;
+        private int batchSize = 16;
+        private long entryTimeout = 30000;
+
+        private Builder() {
+        }
+
+        public int baseRange() {
+            return this.baseRange;
+        }
+
+        public Builder baseRange(int baseRange) {
+            this.baseRange = baseRange;
+            return this;
+        }
+
+        public int rangePerSecond() {
+            return this.rangePerSecond;
+        }
+
+        public Builder rangePerSecond(int rangePerSecond) {
+            this.rangePerSecond = rangePerSecond;
+            return this;
+        }
+
+        public int maxRange() {
+            return this.maxRange;
+        }
+
+        public Builder maxRange(int maxRange) {
+            this.maxRange = maxRange;
+            return this;
+        }
+
+        public int scanLimit() {
+            return this.scanLimit;
+        }
+
+        public Builder scanLimit(int scanLimit) {
+            this.scanLimit = scanLimit;
+            return this;
+        }
+
+        public int batchSize() {
+            return this.batchSize;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public long entryTimeout() {
+            return this.entryTimeout;
+        }
+
+        public Builder entryTimeout(long entryTimeout) {
+            this.entryTimeout = entryTimeout;
+            return this;
+        }
+
+        public MatchQueueSettings build() {
+            checkArgument(this.baseRange >= 0, "base range cannot be negative");
+            checkArgument(this.rangePerSecond >= 0, "range per second cannot be negative");
+            checkArgument(this.maxRange >= this.baseRange, "max range cannot be less than base range");
+            checkArgument(this.scanLimit > 0, "scan limit must be positive");
+            checkArgument(this.batchSize > 0, "batch size must be positive");
+            checkArgument(this.entryTimeout > 0, "entry timeout must be positive");
+
+            return new MatchQueueSettings(this.baseRange, this.rangePerSecond, this.maxRange, this.scanLimit, this.batchSize, this.entryTimeout);
+        }
+    }
+}
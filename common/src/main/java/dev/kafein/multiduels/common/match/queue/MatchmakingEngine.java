@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public final class MatchmakingEngine {
+    private final MatchQueueSettings settings;
+    private final Map<QueuePartition, RatingIndex> partitions;
+    private final Map<UUID, QueueEntry> entries;
+
+    public MatchmakingEngine() {
+        this(MatchQueueSettings.defaults());
+    }
+
+    public MatchmakingEngine(MatchQueueSettings settings) {
+        this.settings = settings;
+        this.partitions = Maps.newConcurrentMap();
+        this.entries = Maps.newConcurrentMap();
+    }
+
+    public @Nullable QueuePair enqueue(@NotNull QueueEntry entry) {
+        RatingIndex index = getIndex(entry.getPartition());
+        synchronized (index) {
+            QueueEntry opponent = index.findOpponent(entry, entry.getJoinedAt());
+            if (opponent != null) {
+                index.remove(opponent);
+                this.entries.remove(opponent.getPlayerId(), opponent);
+                return new QueuePair(opponent, entry, true);
+            }
+
+            if (this.entries.putIfAbsent(entry.getPlayerId(), entry) == null) {
+                index.add(entry);
+            }
+            return null;
+        }
+    }
+
+    public boolean add(@NotNull QueueEntry entry) {
+        RatingIndex index = getIndex(entry.getPartition());
+        synchronized (index) {
+            if (this.entries.putIfAbsent(entry.getPlayerId(), entry) != null) {
+                return false;
+            }
+            return index.add(entry);
+        }
+    }
+
+    public @Nullable QueueEntry findOpponent(@NotNull QueueEntry entry, long now) {
+        RatingIndex index = this.partitions.get(entry.getPartition());
+        if (index == null) {
+            return null;
+        }
+
+        synchronized (index) {
+            return index.findOpponent(entry, now);
+        }
+    }
+
+    public @Nullable QueueEntry remove(@NotNull UUID playerId) {
+        QueueEntry entry = this.entries.get(playerId);
+        if (entry == null) {
+            return null;
+        }
+
+        return remove(entry) ? entry : null;
+    }
+
+    public boolean remove(@NotNull QueueEntry entry) {
+        RatingIndex index = this.partitions.get(entry.getPartition());
+        if (index == null) {
+            return false;
+        }
+
+        synchronized (index) {
+            this.entries.remove(entry.getPlayerId(), entry);
+            return index.remove(entry);
+        }
+    }
+
+    public List<QueuePair> tick(long now) {
+        List<QueuePair> pairs = Lists.newArrayList();
+        for (QueuePartition partition : this.partitions.keySet()) {
+            pairs.addAll(tick(partition, now));
+        }
+        return pairs;
+    }
+
+    public List<QueuePair> tick(@NotNull QueuePartition partition, long now) {
+        RatingIndex index = this.partitions.get(partition);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+
+        List<QueuePair> pairs;
+        synchronized (index) {
+            pairs = index.match(now, this.settings.getBatchSize());
+            for (QueuePair pair : pairs) {
+                this.entries.remove(pair.getFirst().getPlayerId(), pair.getFirst());
+                this.entries.remove(pair.getSecond().getPlayerId(), pair.getSecond());
+            }
+        }
+        return pairs;
+    }
+
+    public void clear() {
+        for (RatingIndex index : this.partitions.values()) {
+            synchronized (index) {
+                for (QueueEntry entry : Lists.newArrayList(index.getEntries())) {
+                    index.remove(entry);
+                }
+            }
+        }
+        this.entries.clear();
+    }
+
+    public boolean contains(@NotNull UUID playerId) {
+        return this.entries.containsKey(playerId);
+    }
+
+    public @Nullable QueueEntry getEntry(@NotNull UUID playerId) {
+        return this.entries.get(playerId);
+    }
+
+    public Collection<QueueEntry> getEntries() {
+        return Collections.unmodifiableCollection(this.entries.values());
+    }
+
+    public List<QueueEntry> getEntries(@NotNull QueuePartition partition) {
+        RatingIndex index = this.partitions.get(partition);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (index) {
+            return Lists.newArrayList(index.getEntries());
+        }
+    }
+
+    public Set<QueuePartition> getPartitions() {
+        return Collections.unmodifiableSet(this.partitions.keySet());
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int size(@NotNull QueuePartition partition) {
+        RatingIndex index = this.partitions.get(partition);
+        if (index == null) {
+            return 0;
+        }
+
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    public MatchQueueSettings getSettings() {
+        return this.settings;
+    }
+
+    private RatingIndex getIndex(@NotNull QueuePartition partition) {
+        return this.partitions.computeIfAbsent(partition, key -> new RatingIndex(this.settings));
+    }
+}
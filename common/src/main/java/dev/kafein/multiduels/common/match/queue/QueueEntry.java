@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.UUID;
+
+public final class QueueEntry {
+    private static final char SEPARATOR = '|';
+
+    private final UUID playerId;
+    private final QueuePartition partition;
+    private final String nodeId;
+    private final int rating;
+    private final long joinedAt;
+
+    public QueueEntry(UUID playerId, QueuePartition partition, String nodeId, int rating, long joinedAt) {
+        this.playerId = playerId;
+        this.partition = partition;
+        this.nodeId = nodeId;
+        this.rating = rating;
+        this.joinedAt = joinedAt;
+    }
+
+    static @Nullable QueueEntry decode(@NotNull UUID playerId, @NotNull QueuePartition partition, @Nullable String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+
+        int first = encoded.indexOf(SEPARATOR);
+        int second = encoded.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            return null;
+        }
+
+        return new QueueEntry(playerId, partition, encoded.substring(0, first),
+                Integer.parseInt(encoded.substring(first + 1, second)),
+                Long.parseLong(encoded.substring(second + 1)));
+    }
+
+    String encode() {
+        return this.nodeId + SEPARATOR + this.rating + SEPARATOR + this.joinedAt;
+    }
+
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+
+    public QueuePartition getPartition() {
+        return this.partition;
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    public int getRating() {
+        return this.rating;
+    }
+
+    public long getJoinedAt() {
+        return this.joinedAt;
+    }
+
+    public long getWaitTime(long now) {
+        return Math.max(0, now - this.joinedAt);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof QueueEntry)) return false;
+
+        QueueEntry entry = (QueueEntry) obj;
+        return entry.getPlayerId().equals(this.playerId)
+                && entry.getPartition().equals(this.partition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.playerId, this.partition);
+    }
+
+    @Override
+    public String toString() {
+        return "QueueEntry{" +
+                "playerId=" + this.playerId +
+                ", partition=" + this.partition +
+                ", nodeId='" + this.nodeId + '\'' +
+                ", rating=" + this.rating +
+                ", joinedAt=" + this.joinedAt +
+                '}';
+    }
+}
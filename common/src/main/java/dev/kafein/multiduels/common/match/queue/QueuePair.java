@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import org.jetbrains.annotations.NotNull;
+
+public final class QueuePair {
+    private final QueueEntry first;
+    private final QueueEntry second;
+    private final boolean local;
+
+    public QueuePair(QueueEntry first, QueueEntry second, boolean local) {
+        this.first = first;
+        this.second = second;
+        this.local = local;
+    }
+
+    public QueueEntry getFirst() {
+        return this.first;
+    }
+
+    public QueueEntry getSecond() {
+        return this.second;
+    }
+
+    public QueuePartition getPartition() {
+        return this.first.getPartition();
+    }
+
+    public boolean isLocal() {
+        return this.local;
+    }
+
+    public boolean isSameNode() {
+        return this.first.getNodeId().equals(this.second.getNodeId());
+    }
+
+    public boolean contains(@NotNull QueueEntry entry) {
+        return this.first.equals(entry) || this.second.equals(entry);
+    }
+
+    public int getRatingDifference() {
+        return Math.abs(this.first.getRating() - this.second.getRating());
+    }
+
+    @Override
+    public String toString() {
+        return "QueuePair{" +
+                "first=" + this.first +
+                ", second=" + this.second +
+                ", local=" + this.local +
+                '}';
+    }
+}
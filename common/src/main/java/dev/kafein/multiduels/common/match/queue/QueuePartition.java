@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class QueuePartition {
+    private final String kit;
+    private final String mode;
+    private final String id;
+
+    private QueuePartition(String kit, String mode) {
+        this.kit = kit;
+        this.mode = mode;
+        this.id = kit + ':' + mode;
+    }
+
+    public static QueuePartition of(@NotNull String kit, @NotNull String mode) {
+        checkArgument(!kit.isEmpty(), "kit cannot be empty");
+        checkArgument(!mode.isEmpty(), "mode cannot be empty");
+        return new QueuePartition(kit, mode);
+    }
+
+    public String getKit() {
+        return this.kit;
+    }
+
+    public String getMode() {
+        return this.mode;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof QueuePartition)) return false;
+
+        QueuePartition partition = (QueuePartition) obj;
+        return partition.getKit().equals(this.kit)
+                && partition.getMode().equals(this.mode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.kit, this.mode);
+    }
+
+    @Override
+    public String toString() {
+        return this.id;
+    }
+}
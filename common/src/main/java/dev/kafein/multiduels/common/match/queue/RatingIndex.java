@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.match.queue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.UUID;
+
+final class RatingIndex {
+    private static final long GROWTH_INTERVAL = 1000;
+
+    private static final Comparator<QueueEntry> BY_RATING = Comparator.comparingInt(QueueEntry::getRating)
+            .thenComparingLong(QueueEntry::getJoinedAt)
+            .thenComparing(QueueEntry::getPlayerId);
+
+    private static final Comparator<Check> BY_DUE = Comparator.<Check>comparingLong(check -> check.due)
+            .thenComparingLong(check -> check.entry.getJoinedAt());
+
+    private final MatchQueueSettings settings;
+    private final NavigableSet<QueueEntry> byRating;
+    private final Map<UUID, QueueEntry> byJoinTime;
+    private final Queue<Check> checks;
+
+    RatingIndex(MatchQueueSettings settings) {
+        this.settings = settings;
+        this.byRating = new TreeSet<>(BY_RATING);
+        this.byJoinTime = Maps.newLinkedHashMap();
+        this.checks = new PriorityQueue<>(BY_DUE);
+    }
+
+    boolean add(@NotNull QueueEntry entry) {
+        if (this.byJoinTime.putIfAbsent(entry.getPlayerId(), entry) != null) {
+            return false;
+        }
+
+        this.byRating.add(entry);
+        schedule(entry, entry.getJoinedAt());
+        return true;
+    }
+
+    boolean remove(@NotNull QueueEntry entry) {
+        if (!this.byJoinTime.remove(entry.getPlayerId(), entry)) {
+            return false;
+        }
+
+        QueueEntry lower = this.byRating.lower(entry);
+        QueueEntry higher = this.byRating.higher(entry);
+        this.byRating.remove(entry);
+
+        if (this.byJoinTime.isEmpty()) {
+            this.checks.clear();
+            return true;
+        }
+        if (lower != null) {
+            this.checks.add(new Check(lower, 0, false));
+        }
+        if (higher != null) {
+            this.checks.add(new Check(higher, 0, false));
+        }
+        return true;
+    }
+
+    @Nullable QueueEntry get(@NotNull UUID playerId) {
+        return this.byJoinTime.get(playerId);
+    }
+
+    @Nullable QueueEntry findOpponent(@NotNull QueueEntry entry, long now) {
+        QueueEntry lower = this.byRating.lower(entry);
+        QueueEntry higher = this.byRating.higher(entry);
+        if (lower != null && lower.getPlayerId().equals(entry.getPlayerId())) {
+            lower = this.byRating.lower(lower);
+        }
+        if (higher != null && higher.getPlayerId().equals(entry.getPlayerId())) {
+            higher = this.byRating.higher(higher);
+        }
+
+        long lowerDifference = lower == null ? Long.MAX_VALUE : (long) entry.getRating() - lower.getRating();
+        long higherDifference = higher == null ? Long.MAX_VALUE : (long) higher.getRating() - entry.getRating();
+        if (higherDifference < lowerDifference) {
+            return accepts(entry, higher, higherDifference, now) ? higher : accepts(entry, lower, lowerDifference, now) ? lower : null;
+        }
+        return accepts(entry, lower, lowerDifference, now) ? lower : accepts(entry, higher, higherDifference, now) ? higher : null;
+    }
+
+    List<QueuePair> match(long now, int limit) {
+        if (this.byJoinTime.size() < 2) {
+            return Collections.emptyList();
+        }
+
+        List<QueuePair> pairs = Lists.newArrayList();
+        while (pairs.size() < limit) {
+            Check check = this.checks.peek();
+            if (check == null || check.due > now) {
+                break;
+            }
+            this.checks.poll();
+
+            QueueEntry entry = check.entry;
+            if (this.byJoinTime.get(entry.getPlayerId()) != entry) {
+                continue;
+            }
+
+            QueueEntry opponent = findOpponent(entry, now);
+            if (opponent == null) {
+                if (check.periodic) {
+                    schedule(entry, now);
+                }
+                continue;
+            }
+
+            remove(entry);
+            remove(opponent);
+            pairs.add(new QueuePair(entry, opponent, true));
+        }
+        return pairs;
+    }
+
+    Collection<QueueEntry> getEntries() {
+        return Collections.unmodifiableCollection(this.byJoinTime.values());
+    }
+
+    int size() {
+        return this.byJoinTime.size();
+    }
+
+    boolean isEmpty() {
+        return this.byJoinTime.isEmpty();
+    }
+
+    private boolean accepts(@NotNull QueueEntry entry, @Nullable QueueEntry candidate, long difference, long now) {
+        if (candidate == null || difference > this.settings.getMaxRange()) {
+            return false;
+        }
+
+        return difference <= Math.max(this.settings.getRange(entry.getWaitTime(now)), this.settings.getRange(candidate.getWaitTime(now)));
+    }
+
+    private void schedule(@NotNull QueueEntry entry, long now) {
+        long waitTime = entry.getWaitTime(now);
+        if (this.settings.getRangePerSecond() <= 0 || this.settings.getRange(waitTime) >= this.settings.getMaxRange()) {
+            return;
+        }
+
+        this.checks.add(new Check(entry, entry.getJoinedAt() + (waitTime / GROWTH_INTERVAL + 1) * GROWTH_INTERVAL, true));
+    }
+
+    private static final class Check {
+        private final QueueEntry entry;
+        private final long due;
+        private final boolean periodic;
+
+        private Check(QueueEntry entry, long due, boolean periodic) {
+            this.entry = entry;
+            this.due = due;
+            this.periodic = periodic;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import dev.kafein.multiduels.common.utils.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+
+public interface MetadataCodec<T> {
+    String encode(@NotNull T value);
+
+    T decode(@NotNull String payload);
+
+    @NotNull
+    static MetadataCodec<String> ofString() {
+        return new MetadataCodec<String>() {
+            @Override
+            public String encode(@NotNull String value) {
+                return value;
+            }
+
+            @Override
+            public String decode(@NotNull String payload) {
+                return payload;
+            }
+        };
+    }
+
+    @NotNull
+    static MetadataCodec<Integer> ofInt() {
+        return new MetadataCodec<Integer>() {
+            @Override
+            public String encode(@NotNull Integer value) {
+                return value.toString();
+            }
+
+            @Override
+            public Integer decode(@NotNull String payload) {
+                return Integer.parseInt(payload);
+            }
+        };
+    }
+
+    @NotNull
+    static MetadataCodec<Long> ofLong() {
+        return new MetadataCodec<Long>() {
+            @Override
+            public String encode(@NotNull Long value) {
+                return value.toString();
+            }
+
+            @Override
+            public Long decode(@NotNull String payload) {
+                return Long.parseLong(payload);
+            }
+        };
+    }
+
+    @NotNull
+    static MetadataCodec<Boolean> ofBoolean() {
+        return new MetadataCodec<Boolean>() {
+            @Override
+            public String encode(@NotNull Boolean value) {
+                return value.toString();
+            }
+
+            @Override
+            public Boolean decode(@NotNull String payload) {
+                return Boolean.parseBoolean(payload);
+            }
+        };
+    }
+
+    @NotNull
+    static <T> MetadataCodec<T> json(@NotNull Class<T> type) {
+        return new MetadataCodec<T>() {
+            @Override
+            public String encode(@NotNull T value) {
+                return GsonProvider.getGson().toJson(value);
+            }
+
+            @Override
+            public T decode(@NotNull String payload) {
+                return GsonProvider.getGson().fromJson(payload, type);
+            }
+        };
+    }
+}
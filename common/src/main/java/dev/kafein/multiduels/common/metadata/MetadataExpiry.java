@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+final class MetadataExpiry {
+    private final MetadataStore store;
+    private final long tickDuration;
+    private final int mask;
+    private final Queue<Timeout>[] wheel;
+    private final Queue<Timeout> pending;
+
+    private final LongAdder scheduledCount;
+    private final LongAdder expiredCount;
+    private final LongAdder failedCount;
+
+    private long currentTick;
+    private ScheduledFuture<?> task;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MetadataExpiry(MetadataStore store, long tickDuration, int wheelSize) {
+        checkArgument(tickDuration > 0, "tickDuration must be positive");
+        checkArgument(wheelSize > 0 && (wheelSize & (wheelSize - 1)) == 0, "wheelSize must be a power of two");
+
+        this.store = store;
+        this.tickDuration = tickDuration;
+        this.mask = wheelSize - 1;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.scheduledCount = new LongAdder();
+        this.expiredCount = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.currentTick = System.currentTimeMillis() / tickDuration;
+    }
+
+    synchronized void start(@NotNull ScheduledExecutorService scheduler) {
+        if (this.task != null) {
+            return;
+        }
+
+        this.task = scheduler.scheduleAtFixedRate(this::tick, this.tickDuration, this.tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+    }
+
+    void schedule(@NotNull UUID owner, @NotNull MetadataKey<?> key, long deadline) {
+        this.pending.add(new Timeout(owner, key, deadline, deadline / this.tickDuration));
+        this.scheduledCount.increment();
+    }
+
+    void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+    synchronized void tick(long now) {
+        transfer();
+
+        long targetTick = now / this.tickDuration;
+        while (this.currentTick < targetTick) {
+            Queue<Timeout> bucket = this.wheel[(int) (this.currentTick & this.mask)];
+            for (int i = bucket.size(); i > 0; i--) {
+                Timeout timeout = bucket.poll();
+                if (timeout.tick > this.currentTick) {
+                    bucket.add(timeout);
+                    continue;
+                }
+
+                try {
+                    if (this.store.expire(timeout.owner, timeout.key, timeout.deadline)) {
+                        this.expiredCount.increment();
+                    }
+                } catch (RuntimeException e) {
+                    this.failedCount.increment();
+                }
+            }
+            this.currentTick++;
+        }
+    }
+
+    private void transfer() {
+        Timeout timeout;
+        while ((timeout = this.pending.poll()) != null) {
+            long tick = Math.max(timeout.tick, this.currentTick);
+            this.wheel[(int) (tick & this.mask)].add(timeout);
+        }
+    }
+
+    long getTickDuration() {
+        return this.tickDuration;
+    }
+
+    int getWheelSize() {
+        return this.wheel.length;
+    }
+
+    long getScheduledCount() {
+        return this.scheduledCount.sum();
+    }
+
+    long getExpiredCount() {
+        return this.expiredCount.sum();
+    }
+
+    long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    private static final class Timeout {
+        private final UUID owner;
+        private final MetadataKey<?> key;
+        private final long deadline;
+        private final long tick;
+
+        private Timeout(UUID owner, MetadataKey<?> key, long deadline, long tick) {
+            this.owner = owner;
+            this.key = key;
+            this.deadline = deadline;
+            this.tick = tick;
+        }
+    }
+}
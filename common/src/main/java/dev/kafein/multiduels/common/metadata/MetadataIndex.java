@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+final class MetadataIndex {
+    private final MetadataKey<?> key;
+    private final Set<UUID> holders;
+    private final Set<UUID> holdersView;
+    private final Map<Object, Set<UUID>> buckets;
+
+    MetadataIndex(MetadataKey<?> key) {
+        this.key = key;
+        this.holders = Sets.newConcurrentHashSet();
+        this.holdersView = Collections.unmodifiableSet(this.holders);
+        this.buckets = Maps.newConcurrentMap();
+    }
+
+    MetadataKey<?> getKey() {
+        return this.key;
+    }
+
+    Set<UUID> getHolders() {
+        return this.holdersView;
+    }
+
+    Set<UUID> getByValue(@NotNull Object value) {
+        return new ValueView(value);
+    }
+
+    synchronized void update(@NotNull UUID owner, @Nullable Object previous, @Nullable Object current) {
+        unlink(owner, previous);
+        link(owner, current);
+    }
+
+    synchronized void add(@NotNull UUID owner, @NotNull MetadataMap metadataMap) {
+        synchronized (metadataMap) {
+            link(owner, metadataMap.readLocked(this.key.getId()));
+        }
+    }
+
+    synchronized void discard(@NotNull UUID owner, @NotNull MetadataMap metadataMap) {
+        synchronized (metadataMap) {
+            unlink(owner, metadataMap.readLocked(this.key.getId()));
+        }
+    }
+
+    private void link(@NotNull UUID owner, @Nullable Object value) {
+        if (value == MetadataMap.ABSENT) {
+            return;
+        }
+
+        this.holders.add(owner);
+        if (value != null) {
+            this.buckets.computeIfAbsent(value, ignored -> Sets.newConcurrentHashSet()).add(owner);
+        }
+    }
+
+    private void unlink(@NotNull UUID owner, @Nullable Object value) {
+        if (value == MetadataMap.ABSENT) {
+            return;
+        }
+
+        this.holders.remove(owner);
+        if (value != null) {
+            Set<UUID> bucket = this.buckets.get(value);
+            if (bucket != null && bucket.remove(owner) && bucket.isEmpty()) {
+                this.buckets.remove(value, bucket);
+            }
+        }
+    }
+
+    private final class ValueView extends AbstractSet<UUID> {
+        private final Object value;
+
+        private ValueView(Object value) {
+            this.value = value;
+        }
+
+        private Set<UUID> bucket() {
+            Set<UUID> bucket = MetadataIndex.this.buckets.get(this.value);
+            return bucket == null ? Collections.emptySet() : bucket;
+        }
+
+        @Override
+        public @NotNull Iterator<UUID> iterator() {
+            return Iterators.unmodifiableIterator(bucket().iterator());
+        }
+
+        @Override
+        public int size() {
+            return bucket().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bucket().isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return bucket().contains(o);
+        }
+    }
+}
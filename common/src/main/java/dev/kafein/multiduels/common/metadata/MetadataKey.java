@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+@SuppressWarnings("unchecked")
+public final class MetadataKey<T> {
+    static final int OBJECT = 1;
+    static final int INT = 2;
+    static final int LONG = 3;
+    static final int BOOLEAN = 4;
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, MetadataKey<?>> BY_NAME = Maps.newConcurrentMap();
+    private static volatile MetadataKey<?>[] BY_ID = new MetadataKey<?>[0];
+
+    private final int id;
+    private final String name;
+    private final Class<T> type;
+    private final int kind;
+    private final MetadataKey<Object> untyped;
+
+    private MetadataKey(int id, String name, Class<T> type, int kind) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.kind = kind;
+        this.untyped = type == Object.class ? (MetadataKey<Object>) this : new MetadataKey<>(id, name, Object.class, OBJECT);
+    }
+
+    @NotNull
+    public static <T> MetadataKey<T> of(@NotNull String name, @NotNull Class<T> type) {
+        MetadataKey<?> existing = BY_NAME.get(name);
+        if (existing == null || (existing.type == Object.class && type != Object.class)) {
+            existing = register(name, type);
+        }
+
+        checkArgument(existing.type == type, "Metadata key " + name + " is already registered with type " + existing.type.getName());
+        return (MetadataKey<T>) existing;
+    }
+
+    @NotNull
+    public static <T> MetadataKey<T> of(@NotNull Enum<?> name, @NotNull Class<T> type) {
+        return of(name.name(), type);
+    }
+
+    @NotNull
+    public static MetadataKey<Integer> ofInt(@NotNull String name) {
+        return of(name, Integer.class);
+    }
+
+    @NotNull
+    public static MetadataKey<Long> ofLong(@NotNull String name) {
+        return of(name, Long.class);
+    }
+
+    @NotNull
+    public static MetadataKey<Boolean> ofBoolean(@NotNull String name) {
+        return of(name, Boolean.class);
+    }
+
+    @NotNull
+    public static MetadataKey<?> intern(@NotNull String name) {
+        MetadataKey<?> existing = BY_NAME.get(name);
+        return existing != null ? existing : register(name, Object.class);
+    }
+
+    public static @Nullable MetadataKey<?> byName(@NotNull String name) {
+        return BY_NAME.get(name);
+    }
+
+    public static @Nullable MetadataKey<?> byId(int id) {
+        MetadataKey<?>[] keys = BY_ID;
+        return id >= 0 && id < keys.length ? keys[id] : null;
+    }
+
+    public static int count() {
+        return BY_ID.length;
+    }
+
+    private static MetadataKey<?> register(@NotNull String name, @NotNull Class<?> type) {
+        synchronized (LOCK) {
+            MetadataKey<?>[] keys = BY_ID;
+            MetadataKey<?> existing = BY_NAME.get(name);
+            if (existing != null) {
+                if (existing.type != Object.class || type == Object.class) {
+                    return existing;
+                }
+
+                MetadataKey<?> upgraded = new MetadataKey<>(existing.id, name, type, kindOf(type));
+                MetadataKey<?>[] updated = keys.clone();
+                updated[existing.id] = upgraded;
+                BY_ID = updated;
+                BY_NAME.put(name, upgraded);
+                return upgraded;
+            }
+
+            MetadataKey<?> key = new MetadataKey<>(keys.length, name, type, kindOf(type));
+
+            MetadataKey<?>[] updated = Arrays.copyOf(keys, keys.length + 1);
+            updated[keys.length] = key;
+            BY_ID = updated;
+            BY_NAME.put(name, key);
+            return key;
+        }
+    }
+
+    private static int kindOf(@NotNull Class<?> type) {
+        if (type == Integer.class) {
+            return INT;
+        }
+        if (type == Long.class) {
+            return LONG;
+        }
+        if (type == Boolean.class) {
+            return BOOLEAN;
+        }
+        return OBJECT;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    int getKind() {
+        return this.kind;
+    }
+
+    MetadataKey<Object> untyped() {
+        return this.untyped;
+    }
+
+    public boolean isPrimitive() {
+        return this.kind != OBJECT;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MetadataKey && ((MetadataKey<?>) obj).id == this.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataKey{" +
+                "id=" + this.id +
+                ", name='" + this.name + '\'' +
+                ", type=" + this.type.getSimpleName() +
+                '}';
+    }
+}
@@ -28,34 +28,243 @@ import com.google.common.collect.Maps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @SuppressWarnings("unchecked")
 public final class MetadataMap {
-    private final Map<String, Metadata<?>> metadataMap;
+    static final Object ABSENT = new Object();
+    private static final Object UNCHANGED = new Object();
+
+    private static final int ABSENT_KIND = 0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Object writeLock = new Object();
+
+    private volatile Slots slots;
+    private volatile int size;
+
+    private volatile @Nullable UUID owner;
+    private volatile @Nullable MetadataStore store;
 
     public MetadataMap() {
-        this.metadataMap = Maps.newHashMap();
+        this.slots = new Slots(Math.max(INITIAL_CAPACITY, MetadataKey.count()));
+    }
+
+    Object getWriteLock() {
+        return this.writeLock;
+    }
+
+    void attach(@NotNull MetadataStore store, @NotNull UUID owner) {
+        this.owner = owner;
+        this.store = store;
+
+        Slots slots = this.slots;
+        for (int id = 0; id < slots.capacity; id++) {
+            long deadline = slots.deadlines.get(id);
+            if (deadline != 0) {
+                store.scheduleExpiry(owner, MetadataKey.byId(id), deadline);
+            }
+        }
+    }
+
+    void detach() {
+        this.store = null;
+        this.owner = null;
+    }
+
+    public <T> @Nullable T get(@NotNull MetadataKey<T> key) {
+        Object value = read(key.getId());
+        return value == ABSENT ? null : (T) value;
+    }
+
+    public <T> T getOrDefault(@NotNull MetadataKey<T> key, T defaultValue) {
+        Object value = read(key.getId());
+        return value == ABSENT ? defaultValue : (T) value;
+    }
+
+    public int getInt(@NotNull MetadataKey<Integer> key, int defaultValue) {
+        Slots slots = this.slots;
+        int id = key.getId();
+        if (id >= slots.capacity || expireIfDue(slots, id)) {
+            return defaultValue;
+        }
+
+        int kind = slots.kinds.get(id);
+        if (kind == MetadataKey.INT || kind == MetadataKey.LONG) {
+            return (int) slots.primitives.get(id);
+        }
+        Object value = slots.objects.get(id);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    public long getLong(@NotNull MetadataKey<Long> key, long defaultValue) {
+        Slots slots = this.slots;
+        int id = key.getId();
+        if (id >= slots.capacity || expireIfDue(slots, id)) {
+            return defaultValue;
+        }
+
+        int kind = slots.kinds.get(id);
+        if (kind == MetadataKey.INT || kind == MetadataKey.LONG) {
+            return slots.primitives.get(id);
+        }
+        Object value = slots.objects.get(id);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    public boolean getBoolean(@NotNull MetadataKey<Boolean> key, boolean defaultValue) {
+        Slots slots = this.slots;
+        int id = key.getId();
+        if (id >= slots.capacity || expireIfDue(slots, id)) {
+            return defaultValue;
+        }
+
+        int kind = slots.kinds.get(id);
+        if (kind == MetadataKey.BOOLEAN) {
+            return slots.primitives.get(id) != 0;
+        }
+        Object value = slots.objects.get(id);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public <T> void set(@NotNull MetadataKey<T> key, @Nullable T value) {
+        if (value == null && key.isPrimitive()) {
+            remove(key);
+            return;
+        }
+        update(key, value, false, 0);
+    }
+
+    public <T> void set(@NotNull MetadataKey<T> key, @NotNull T value, long timeToLive, @NotNull TimeUnit unit) {
+        update(key, value, false, deadline(timeToLive, unit));
+    }
+
+    public void setInt(@NotNull MetadataKey<Integer> key, int value) {
+        setPrimitive(key, value);
+    }
+
+    public void setLong(@NotNull MetadataKey<Long> key, long value) {
+        setPrimitive(key, value);
+    }
+
+    public void setBoolean(@NotNull MetadataKey<Boolean> key, boolean value) {
+        setPrimitive(key, value ? 1 : 0);
+    }
+
+    public boolean has(@NotNull MetadataKey<?> key) {
+        Slots slots = this.slots;
+        int id = key.getId();
+        return id < slots.capacity && !expireIfDue(slots, id) && slots.kinds.get(id) != ABSENT_KIND;
+    }
+
+    public void remove(@NotNull MetadataKey<?> key) {
+        update(key, ABSENT, false, 0);
+    }
+
+    public long getTimeToLive(@NotNull MetadataKey<?> key, @NotNull TimeUnit unit) {
+        Slots slots = this.slots;
+        int id = key.getId();
+        if (id >= slots.capacity || expireIfDue(slots, id) || slots.kinds.get(id) == ABSENT_KIND) {
+            return -1;
+        }
+
+        long deadline = slots.deadlines.get(id);
+        return deadline == 0 ? -1 : unit.convert(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
     }
 
     public <T> void put(@NotNull Metadata<T> metadata) {
-        this.metadataMap.put(metadata.getKey(), metadata);
+        update(legacyKey(MetadataKey.intern(metadata.getKey()), metadata.getValue()), metadata.getValue(), false, 0);
+    }
+
+    public <T> void put(@NotNull Metadata<T> metadata, long timeToLive, @NotNull TimeUnit unit) {
+        update(legacyKey(MetadataKey.intern(metadata.getKey()), metadata.getValue()), metadata.getValue(), false, deadline(timeToLive, unit));
     }
 
     public <T> void putIfAbsent(@NotNull Metadata<T> metadata) {
-        this.metadataMap.putIfAbsent(metadata.getKey(), metadata);
+        update(legacyKey(MetadataKey.intern(metadata.getKey()), metadata.getValue()), metadata.getValue(), true, 0);
+    }
+
+    public <T> @Nullable Metadata<T> compute(@NotNull String key, @NotNull BiFunction<String, Metadata<T>, Metadata<T>> function) {
+        MetadataKey<?> metadataKey = MetadataKey.intern(key);
+        UUID owner;
+        Metadata<T> current;
+        while (true) {
+            owner = this.owner;
+            MetadataIndex index = owner == null ? null : getIndex(metadataKey);
+            if (index == null) {
+                synchronized (this) {
+                    if (owner != null && getIndex(metadataKey) != null) {
+                        continue;
+                    }
+                    current = computeLocked(metadataKey, function, null, null);
+                }
+            } else {
+                synchronized (index) {
+                    synchronized (this) {
+                        if (this.owner != owner || getIndex(metadataKey) != index) {
+                            continue;
+                        }
+                        current = computeLocked(metadataKey, function, index, owner);
+                    }
+                }
+            }
+            break;
+        }
+
+        notifyWrite(owner, metadataKey);
+        return current;
+    }
+
+    private <T> @Nullable Metadata<T> computeLocked(@NotNull MetadataKey<?> key, @NotNull BiFunction<String, Metadata<T>, Metadata<T>> function,
+                                                    @Nullable MetadataIndex index, @Nullable UUID owner) {
+        Object previous = readLocked(key.getId());
+        Object visible = previous != ABSENT && isDue(key.getId()) ? ABSENT : previous;
+        Metadata<T> current = function.apply(key.getName(), visible == ABSENT ? null : new Metadata<>(key.getName(), (T) visible));
+        Object value = current == null ? ABSENT : current.getValue();
+        apply(value == ABSENT ? key : legacyKey(key, value), value, false, 0);
+
+        if (index != null) {
+            index.update(owner, previous, value);
+        }
+        return current;
     }
 
     public Map<String, Metadata<?>> getAll() {
-        return this.metadataMap;
+        Map<String, Metadata<?>> all = Maps.newLinkedHashMap();
+        forEach((key, value) -> all.put(key.getName(), new Metadata<>(key.getName(), value)));
+        return all;
+    }
+
+    public void forEach(@NotNull BiConsumer<MetadataKey<?>, Object> consumer) {
+        Slots slots = this.slots;
+        for (int id = 0; id < slots.capacity; id++) {
+            Object value = read(id);
+            if (value != ABSENT) {
+                consumer.accept(MetadataKey.byId(id), value);
+            }
+        }
     }
 
     public <T> @Nullable Metadata<T> get(@NotNull String key) {
-        return (Metadata<T>) find(key).orElse(null);
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        if (metadataKey == null) {
+            return null;
+        }
+
+        Object value = read(metadataKey.getId());
+        return value == ABSENT ? null : new Metadata<>(key, (T) value);
     }
 
     public <T> @Nullable Metadata<T> get(@NotNull Enum<?> key) {
@@ -63,9 +272,8 @@ public final class MetadataMap {
     }
 
     public <T> @Nullable Metadata<T> get(@NotNull String key, @NotNull Class<T> type) {
-        return (Metadata<T>) find(key)
-                .filter(metadata -> metadata.getValue().getClass().equals(type))
-                .orElse(null);
+        Metadata<T> metadata = get(key);
+        return metadata != null && type.isInstance(metadata.getValue()) ? metadata : null;
     }
 
     public <T> @Nullable Metadata<T> get(@NotNull Enum<?> key, @NotNull Class<T> type) {
@@ -73,13 +281,18 @@ public final class MetadataMap {
     }
 
     public <T> Map<String, Metadata<T>> get(@NotNull Predicate<String> predicate, @NotNull Class<T> type) {
-        return this.metadataMap.entrySet().stream()
-                .filter(entry -> predicate.test(entry.getKey()) && entry.getValue().getValue().getClass().equals(type))
-                .collect(HashMap::new, (map, entry) -> map.put(entry.getKey(), (Metadata<T>) entry.getValue()), HashMap::putAll);
+        Map<String, Metadata<T>> result = Maps.newHashMap();
+        forEach((key, value) -> {
+            if (predicate.test(key.getName()) && type.isInstance(value)) {
+                result.put(key.getName(), new Metadata<>(key.getName(), (T) value));
+            }
+        });
+        return result;
     }
 
     public <T> Metadata<T> getOrDefault(@NotNull String key, @NotNull Metadata<T> defaultValue) {
-        return (Metadata<T>) this.metadataMap.getOrDefault(key, defaultValue);
+        Metadata<T> metadata = get(key);
+        return metadata == null ? defaultValue : metadata;
     }
 
     public <T> Metadata<T> getOrDefault(@NotNull Enum<?> key, @NotNull Metadata<T> defaultValue) {
@@ -87,7 +300,7 @@ public final class MetadataMap {
     }
 
     public <T> Optional<Metadata<T>> find(@NotNull String key) {
-        return Optional.ofNullable((Metadata<T>) this.metadataMap.get(key));
+        return Optional.ofNullable(get(key));
     }
 
     public <T> Optional<Metadata<T>> find(@NotNull Enum<?> key) {
@@ -95,10 +308,18 @@ public final class MetadataMap {
     }
 
     public <T> boolean ifPresent(@NotNull String key, @NotNull Consumer<? super T> consumer) {
-        return find(key).map(metadata -> {
-            consumer.accept(((Metadata<T>) metadata).getValue());
-            return true;
-        }).orElse(false);
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        if (metadataKey == null) {
+            return false;
+        }
+
+        Object value = read(metadataKey.getId());
+        if (value == ABSENT) {
+            return false;
+        }
+
+        consumer.accept((T) value);
+        return true;
     }
 
     public <T> boolean ifPresent(@NotNull Enum<?> key, @NotNull Consumer<? super T> consumer) {
@@ -106,7 +327,8 @@ public final class MetadataMap {
     }
 
     public boolean contains(@NotNull String key) {
-        return this.metadataMap.containsKey(key);
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        return metadataKey != null && has(metadataKey);
     }
 
     public boolean contains(@NotNull String... keys) {
@@ -128,7 +350,10 @@ public final class MetadataMap {
     }
 
     public void remove(@NotNull String key) {
-        this.metadataMap.remove(key);
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        if (metadataKey != null) {
+            remove(metadataKey);
+        }
     }
 
     public void remove(@NotNull Enum<?> key) {
@@ -136,15 +361,275 @@ public final class MetadataMap {
     }
 
     public <T> void remove(@NotNull Metadata<T> metadata) {
-        this.metadataMap.remove(metadata.getKey());
+        remove(metadata.getKey());
     }
 
     public void clear() {
-        this.metadataMap.clear();
+        Slots slots = this.slots;
+        for (int id = 0; id < slots.capacity; id++) {
+            if (slots.kinds.get(id) != ABSENT_KIND) {
+                remove(MetadataKey.byId(id));
+            }
+        }
     }
 
     public int size() {
-        return this.metadataMap.size();
+        return this.size;
+    }
+
+    Object read(int id) {
+        Slots slots = this.slots;
+        if (id >= slots.capacity || expireIfDue(slots, id)) {
+            return ABSENT;
+        }
+        return slots.read(id);
+    }
+
+    void update(@NotNull MetadataKey<?> key, @Nullable Object value, boolean onlyIfAbsent, long deadline) {
+        update(key, value, onlyIfAbsent, deadline, true);
+    }
+
+    void applyRemote(@NotNull MetadataKey<?> key, @Nullable Object value) {
+        update(key, value, false, 0, false);
+    }
+
+    private void update(@NotNull MetadataKey<?> key, @Nullable Object value, boolean onlyIfAbsent, long deadline, boolean replicate) {
+        UUID owner;
+        Object previous;
+        while (true) {
+            owner = this.owner;
+            MetadataIndex index = owner == null ? null : getIndex(key);
+            if (index == null) {
+                synchronized (this) {
+                    if (owner != null && getIndex(key) != null) {
+                        continue;
+                    }
+                    previous = apply(key, value, onlyIfAbsent, deadline);
+                }
+            } else {
+                synchronized (index) {
+                    synchronized (this) {
+                        if (this.owner != owner || getIndex(key) != index) {
+                            continue;
+                        }
+                        previous = apply(key, value, onlyIfAbsent, deadline);
+                    }
+
+                    if (previous != UNCHANGED) {
+                        index.update(owner, previous, value);
+                    }
+                }
+            }
+            break;
+        }
+
+        if (previous == UNCHANGED) {
+            return;
+        }
+
+        MetadataStore store = this.store;
+        if (deadline != 0 && store != null && owner != null) {
+            store.scheduleExpiry(owner, key, deadline);
+        }
+        if (replicate) {
+            notifyWrite(owner, key);
+        }
+    }
+
+    private void notifyWrite(@Nullable UUID owner, @NotNull MetadataKey<?> key) {
+        MetadataStore store = this.store;
+        if (store != null && owner != null) {
+            store.onWrite(owner, key);
+        }
+    }
+
+    boolean expire(@NotNull MetadataKey<?> key, long deadline) {
+        UUID owner;
+        Object previous;
+        while (true) {
+            owner = this.owner;
+            MetadataIndex index = owner == null ? null : getIndex(key);
+            if (index == null) {
+                synchronized (this) {
+                    if (owner != null && getIndex(key) != null) {
+                        continue;
+                    }
+                    previous = expireLocked(key, deadline);
+                }
+            } else {
+                synchronized (index) {
+                    synchronized (this) {
+                        if (this.owner != owner || getIndex(key) != index) {
+                            continue;
+                        }
+                        previous = expireLocked(key, deadline);
+                    }
+
+                    if (previous != UNCHANGED) {
+                        index.update(owner, previous, ABSENT);
+                    }
+                }
+            }
+            break;
+        }
+
+        if (previous == UNCHANGED) {
+            return false;
+        }
+
+        MetadataStore store = this.store;
+        if (store != null && owner != null) {
+            store.fireExpired(owner, key, previous);
+            store.onWrite(owner, key);
+        }
+        return true;
+    }
+
+    private Object expireLocked(@NotNull MetadataKey<?> key, long deadline) {
+        int id = key.getId();
+        Slots slots = this.slots;
+        if (id >= slots.capacity || slots.deadlines.get(id) != deadline || slots.kinds.get(id) == ABSENT_KIND) {
+            return UNCHANGED;
+        }
+        return apply(key, ABSENT, false, 0);
+    }
+
+    private boolean expireIfDue(@NotNull Slots slots, int id) {
+        long deadline = slots.deadlines.get(id);
+        return deadline != 0 && deadline <= System.currentTimeMillis() && expire(MetadataKey.byId(id), deadline);
+    }
+
+    private boolean isDue(int id) {
+        long deadline = this.slots.deadlines.get(id);
+        return deadline != 0 && deadline <= System.currentTimeMillis();
+    }
+
+    Object readLocked(int id) {
+        Slots slots = this.slots;
+        return id < slots.capacity ? slots.read(id) : ABSENT;
+    }
+
+    private void setPrimitive(@NotNull MetadataKey<?> key, long value) {
+        UUID owner = this.owner;
+        if (owner != null && (getIndex(key) != null || isReplicated(key))) {
+            update(key, box(key.getKind(), value), false, 0);
+            return;
+        }
+
+        synchronized (this) {
+            if (owner == null || getIndex(key) == null) {
+                int id = key.getId();
+                Slots slots = ensureCapacity(id);
+                if (slots.kinds.get(id) == ABSENT_KIND) {
+                    this.size++;
+                }
+
+                slots.primitives.set(id, value);
+                slots.kinds.set(id, key.getKind());
+                slots.objects.set(id, null);
+                slots.deadlines.set(id, 0);
+                return;
+            }
+        }
+
+        update(key, box(key.getKind(), value), false, 0);
+    }
+
+    private Object apply(@NotNull MetadataKey<?> key, @Nullable Object value, boolean onlyIfAbsent, long deadline) {
+        int id = key.getId();
+        Object previous = readLocked(id);
+        if (onlyIfAbsent && previous != ABSENT && !isDue(id)) {
+            return UNCHANGED;
+        }
+
+        if (value == ABSENT) {
+            if (previous != ABSENT) {
+                Slots slots = this.slots;
+                slots.kinds.set(id, ABSENT_KIND);
+                slots.objects.set(id, null);
+                slots.primitives.set(id, 0);
+                slots.deadlines.set(id, 0);
+                this.size--;
+            }
+            return previous;
+        }
+
+        checkArgument(value == null || key.getType().isInstance(value),
+                "Value " + value + " is not a " + key.getType().getName() + " for key " + key.getName());
+
+        Slots slots = ensureCapacity(id);
+        int kind = key.getKind();
+        if (kind == MetadataKey.OBJECT) {
+            slots.objects.set(id, value);
+        } else {
+            slots.primitives.set(id, unbox(kind, value));
+        }
+        slots.kinds.set(id, kind);
+        if (kind != MetadataKey.OBJECT) {
+            slots.objects.set(id, null);
+        }
+        slots.deadlines.set(id, deadline);
+
+        if (previous == ABSENT) {
+            this.size++;
+        }
+        return previous;
+    }
+
+    private Slots ensureCapacity(int id) {
+        Slots slots = this.slots;
+        if (id < slots.capacity) {
+            return slots;
+        }
+
+        Slots grown = new Slots(Math.max(id + 1, Math.max(slots.capacity * 2, MetadataKey.count())));
+        for (int i = 0; i < slots.capacity; i++) {
+            grown.kinds.set(i, slots.kinds.get(i));
+            grown.objects.set(i, slots.objects.get(i));
+            grown.primitives.set(i, slots.primitives.get(i));
+            grown.deadlines.set(i, slots.deadlines.get(i));
+        }
+        this.slots = grown;
+        return grown;
+    }
+
+    private @Nullable MetadataIndex getIndex(@NotNull MetadataKey<?> key) {
+        MetadataStore store = this.store;
+        return store == null ? null : store.getIndex(key.getId());
+    }
+
+    private boolean isReplicated(@NotNull MetadataKey<?> key) {
+        MetadataStore store = this.store;
+        return store != null && store.isReplicated(key.getId());
+    }
+
+    private static MetadataKey<?> legacyKey(@NotNull MetadataKey<?> key, @Nullable Object value) {
+        return value != null && key.getType().isInstance(value) ? key : key.untyped();
+    }
+
+    private static long deadline(long timeToLive, @NotNull TimeUnit unit) {
+        checkArgument(timeToLive > 0, "timeToLive must be positive");
+        return System.currentTimeMillis() + unit.toMillis(timeToLive);
+    }
+
+    private static long unbox(int kind, @Nullable Object value) {
+        if (kind == MetadataKey.BOOLEAN) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static Object box(int kind, long value) {
+        switch (kind) {
+            case MetadataKey.INT:
+                return (int) value;
+            case MetadataKey.LONG:
+                return value;
+            case MetadataKey.BOOLEAN:
+                return value != 0;
+            default:
+                throw new IllegalArgumentException("Unknown kind " + kind);
+        }
     }
 
     @Override
@@ -152,18 +637,49 @@ public final class MetadataMap {
         if (!(obj instanceof MetadataMap)) return false;
 
         MetadataMap metadataMap = (MetadataMap) obj;
-        return this.metadataMap.equals(metadataMap.metadataMap);
+        return getAll().equals(metadataMap.getAll());
     }
 
     @Override
     public int hashCode() {
-        return this.metadataMap.hashCode();
+        return getAll().hashCode();
     }
 
     @Override
     public String toString() {
         return "MetadataMap{" +
-                "metadataMap=" + this.metadataMap +
+                "metadataMap=" + getAll() +
                 '}';
     }
+
+    private static final class Slots {
+        private final int capacity;
+        private final AtomicIntegerArray kinds;
+        private final AtomicReferenceArray<Object> objects;
+        private final AtomicLongArray primitives;
+        private final AtomicLongArray deadlines;
+
+        private Slots(int capacity) {
+            this.capacity = capacity;
+            this.kinds = new AtomicIntegerArray(capacity);
+            this.objects = new AtomicReferenceArray<>(capacity);
+            this.primitives = new AtomicLongArray(capacity);
+            this.deadlines = new AtomicLongArray(capacity);
+        }
+
+        private Object read(int id) {
+            switch (this.kinds.get(id)) {
+                case MetadataKey.OBJECT:
+                    return this.objects.get(id);
+                case MetadataKey.INT:
+                    return (int) this.primitives.get(id);
+                case MetadataKey.LONG:
+                    return this.primitives.get(id);
+                case MetadataKey.BOOLEAN:
+                    return this.primitives.get(id) != 0;
+                default:
+                    return ABSENT;
+            }
+        }
+    }
 }
@@ -0,0 +1,374 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.metadata;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import dev.kafein.multiduels.common.redis.RedisClient;
+import dev.kafein.multiduels.common.redis.RedisKeys;
+import dev.kafein.multiduels.common.redis.RedisScript;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import dev.kafein.multiduels.common.redis.message.MessageListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+@SuppressWarnings("unchecked")
+public final class MetadataReplicator {
+    public static final String CHANNEL = "multiduels:metadata:delta";
+
+    private static final RedisScript WRITE_SCRIPT = RedisScript.of("metadata-write",
+            "local version = redis.call('hincrby', KEYS[2], ARGV[1], 1)\n" +
+            "if ARGV[2] == '1' then\n" +
+            "    redis.call('hset', KEYS[1], ARGV[1], ARGV[3])\n" +
+            "else\n" +
+            "    redis.call('hdel', KEYS[1], ARGV[1])\n" +
+            "end\n" +
+            "redis.call('pexpire', KEYS[1], ARGV[4])\n" +
+            "redis.call('pexpire', KEYS[2], ARGV[4])\n" +
+            "return version");
+
+    private static final RedisScript LOAD_SCRIPT = RedisScript.of("metadata-load",
+            "local versions = redis.call('hgetall', KEYS[2])\n" +
+            "if #versions > 0 then\n" +
+            "    redis.call('pexpire', KEYS[1], ARGV[1])\n" +
+            "    redis.call('pexpire', KEYS[2], ARGV[1])\n" +
+            "end\n" +
+            "local result = {}\n" +
+            "for i = 1, #versions, 2 do\n" +
+            "    local value = redis.call('hget', KEYS[1], versions[i])\n" +
+            "    result[#result + 1] = versions[i]\n" +
+            "    result[#result + 1] = versions[i + 1]\n" +
+            "    result[#result + 1] = value and '1' or '0'\n" +
+            "    result[#result + 1] = value or ''\n" +
+            "end\n" +
+            "return result");
+
+    private static final BinaryCodec<Delta> DELTA_CODEC = new BinaryCodec<Delta>() {
+        @Override
+        public void encode(@NotNull Delta value, @NotNull ByteBuffer buffer) {
+            ByteBuffers.writeUniqueId(buffer, value.owner);
+            ByteBuffers.writeString(buffer, value.key);
+            ByteBuffers.writeVarLong(buffer, value.version);
+            ByteBuffers.writeString(buffer, value.payload);
+        }
+
+        @Override
+        public Delta decode(@NotNull ByteBuffer buffer) {
+            return new Delta(ByteBuffers.readUniqueId(buffer), ByteBuffers.readString(buffer),
+                    ByteBuffers.readVarLong(buffer), ByteBuffers.readString(buffer));
+        }
+    };
+
+    private static final MetadataCodec<?>[] NO_CODECS = new MetadataCodec<?>[0];
+    private static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.DAYS.toMillis(7);
+
+    private final RedisClient client;
+    private final MetadataStore store;
+    private final String nodeId;
+    private final long idleTimeout;
+
+    private final Map<UUID, Map<MetadataKey<?>, Long>> versions;
+    private final Set<Entry> dirty;
+    private final AtomicBoolean flushScheduled;
+
+    private final LongAdder writeCount;
+    private final LongAdder appliedCount;
+    private final LongAdder staleCount;
+    private final LongAdder failedCount;
+
+    private volatile MetadataCodec<?>[] codecs;
+    private volatile boolean started;
+
+    public MetadataReplicator(@NotNull RedisClient client, @NotNull MetadataStore store) {
+        this(client, store, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public MetadataReplicator(@NotNull RedisClient client, @NotNull MetadataStore store, long idleTimeout) {
+        checkArgument(idleTimeout > 0, "idleTimeout must be positive");
+
+        this.client = client;
+        this.store = store;
+        this.nodeId = client.getOptions().getNodeId();
+        this.idleTimeout = idleTimeout;
+        this.versions = Maps.newConcurrentMap();
+        this.dirty = Sets.newConcurrentHashSet();
+        this.flushScheduled = new AtomicBoolean();
+        this.writeCount = new LongAdder();
+        this.appliedCount = new LongAdder();
+        this.staleCount = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.codecs = NO_CODECS;
+
+        client.getScripts().register(WRITE_SCRIPT);
+        client.getScripts().register(LOAD_SCRIPT);
+    }
+
+    public synchronized <T> void replicate(@NotNull MetadataKey<T> key, @NotNull MetadataCodec<T> codec) {
+        MetadataCodec<?>[] codecs = this.codecs;
+        MetadataCodec<?>[] updated = Arrays.copyOf(codecs, Math.max(codecs.length, key.getId() + 1));
+        updated[key.getId()] = codec;
+        this.codecs = updated;
+    }
+
+    public boolean isReplicated(@NotNull MetadataKey<?> key) {
+        return isReplicated(key.getId());
+    }
+
+    boolean isReplicated(int id) {
+        return getCodec(id) != null;
+    }
+
+    public synchronized void start() {
+        if (this.started) {
+            return;
+        }
+
+        this.client.getOperations().subscribe(this.client.getWorkerPool(), CHANNEL, MessageListener.raw((client, envelope) -> onDelta(envelope)));
+        this.store.setReplicator(this);
+        this.started = true;
+    }
+
+    public synchronized void stop() {
+        if (!this.started) {
+            return;
+        }
+
+        this.store.setReplicator(null);
+        this.client.unsubscribe(CHANNEL);
+        this.started = false;
+
+        flush();
+    }
+
+    public CompletableFuture<Void> load(@NotNull UUID uniqueId) {
+        return CompletableFuture.runAsync(() -> {
+            MetadataMap metadataMap = this.store.getOrCreate(uniqueId);
+            List<String> result = this.client.getScripts().evalList(LOAD_SCRIPT, keys(uniqueId), ImmutableList.of(Long.toString(this.idleTimeout)));
+            for (int i = 0; i + 3 < result.size(); i += 4) {
+                String payload = "1".equals(result.get(i + 2)) ? result.get(i + 3) : null;
+                apply(uniqueId, metadataMap, result.get(i), Long.parseLong(result.get(i + 1)), payload);
+            }
+        }, this.client.getWorkerPool());
+    }
+
+    public void unload(@NotNull UUID uniqueId) {
+        this.versions.remove(uniqueId);
+        this.dirty.removeIf(entry -> entry.owner.equals(uniqueId));
+    }
+
+    public long getVersion(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        Map<MetadataKey<?>, Long> entries = this.versions.get(uniqueId);
+        if (entries == null) {
+            return 0;
+        }
+
+        Long version = entries.get(key);
+        return version == null ? 0 : version;
+    }
+
+    void markDirty(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        if (!isReplicated(key.getId()) || !this.dirty.add(new Entry(uniqueId, key))) {
+            return;
+        }
+
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            try {
+                this.client.getWorkerPool().execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                this.flushScheduled.set(false);
+            }
+        }
+    }
+
+    synchronized void flush() {
+        this.flushScheduled.set(false);
+
+        Iterator<Entry> iterator = this.dirty.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+
+            try {
+                write(entry.owner, entry.key);
+            } catch (RuntimeException e) {
+                this.failedCount.increment();
+            }
+        }
+    }
+
+    private void write(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        MetadataCodec<Object> codec = (MetadataCodec<Object>) getCodec(key.getId());
+        MetadataMap metadataMap = this.store.get(uniqueId);
+        if (codec == null || metadataMap == null) {
+            return;
+        }
+
+        Object value = metadataMap.read(key.getId());
+        String payload = value == MetadataMap.ABSENT || value == null ? null : codec.encode(value);
+
+        long version = this.client.getScripts().evalLong(WRITE_SCRIPT, keys(uniqueId), ImmutableList.of(
+                key.getName(),
+                payload == null ? "0" : "1",
+                payload == null ? "" : payload,
+                Long.toString(this.idleTimeout)));
+        this.writeCount.increment();
+
+        Map<MetadataKey<?>, Long> entries = this.versions.computeIfAbsent(uniqueId, id -> Maps.newHashMap());
+        synchronized (entries) {
+            Long current = entries.get(key);
+            if (current == null || current < version) {
+                entries.put(key, version);
+
+                if (!Objects.equals(metadataMap.read(key.getId()), value) && !this.dirty.contains(new Entry(uniqueId, key))) {
+                    metadataMap.applyRemote(key, value);
+                }
+            }
+        }
+
+        this.client.getOperations().publish(CHANNEL, null, ByteBuffers.encode(DELTA_CODEC, new Delta(uniqueId, key.getName(), version, payload)));
+    }
+
+    private void onDelta(@NotNull MessageEnvelope envelope) {
+        if (this.nodeId.equals(envelope.getSender())) {
+            return;
+        }
+
+        try {
+            Delta delta = DELTA_CODEC.decode(envelope.getPayloadBuffer());
+            MetadataMap metadataMap = this.store.get(delta.owner);
+            if (metadataMap != null) {
+                apply(delta.owner, metadataMap, delta.key, delta.version, delta.payload);
+            }
+        } catch (RuntimeException e) {
+            this.failedCount.increment();
+        }
+    }
+
+    private void apply(@NotNull UUID uniqueId, @NotNull MetadataMap metadataMap, @NotNull String name, long version, @Nullable String payload) {
+        MetadataKey<?> key = MetadataKey.byName(name);
+        MetadataCodec<?> codec = key == null ? null : getCodec(key.getId());
+        if (codec == null) {
+            return;
+        }
+
+        Map<MetadataKey<?>, Long> entries = this.versions.computeIfAbsent(uniqueId, id -> Maps.newHashMap());
+        synchronized (entries) {
+            Long current = entries.get(key);
+            if (current != null && current >= version) {
+                this.staleCount.increment();
+                return;
+            }
+
+            entries.put(key, version);
+            metadataMap.applyRemote(key, payload == null ? MetadataMap.ABSENT : codec.decode(payload));
+        }
+        this.appliedCount.increment();
+    }
+
+    private @Nullable MetadataCodec<?> getCodec(int id) {
+        MetadataCodec<?>[] codecs = this.codecs;
+        return id < codecs.length ? codecs[id] : null;
+    }
+
+    private static List<String> keys(@NotNull UUID uniqueId) {
+        return ImmutableList.of(RedisKeys.metadata(uniqueId, "values"), RedisKeys.metadata(uniqueId, "versions"));
+    }
+
+    public long getWriteCount() {
+        return this.writeCount.sum();
+    }
+
+    public long getAppliedCount() {
+        return this.appliedCount.sum();
+    }
+
+    public long getStaleCount() {
+        return this.staleCount.sum();
+    }
+
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    public int getPendingCount() {
+        return this.dirty.size();
+    }
+
+    private static final class Entry {
+        private final UUID owner;
+        private final MetadataKey<?> key;
+
+        private Entry(UUID owner, MetadataKey<?> key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) return false;
+
+            Entry entry = (Entry) obj;
+            return this.owner.equals(entry.owner) && this.key.equals(entry.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.owner, this.key.getId());
+        }
+    }
+
+    private static final class Delta {
+        private final UUID owner;
+        private final String key;
+        private final long version;
+        private final @Nullable String payload;
+
+        private Delta(UUID owner, String key, long version, @Nullable String payload) {
+            this.owner = owner;
+            this.key = key;
+            this.version = version;
+            this.payload = payload;
+        }
+    }
+}
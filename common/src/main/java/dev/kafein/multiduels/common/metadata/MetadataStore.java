@@ -29,31 +29,274 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public final class MetadataStore {
+    private static final MetadataIndex[] NO_INDEXES = new MetadataIndex[0];
+    private static final long DEFAULT_TICK_DURATION = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
     private final Map<UUID, MetadataMap> playerMetadata;
+    private final MetadataExpiry expiry;
+    private final List<MetadataExpiryListener> expiryListeners;
+    private volatile MetadataIndex[] indexes;
+    private volatile @Nullable MetadataReplicator replicator;
 
     public MetadataStore() {
-        this.playerMetadata = Maps.newHashMap();
+        this(DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public MetadataStore(long tickDuration, @NotNull TimeUnit unit, int wheelSize) {
+        this.playerMetadata = Maps.newConcurrentMap();
+        this.expiry = new MetadataExpiry(this, unit.toMillis(tickDuration), wheelSize);
+        this.expiryListeners = new CopyOnWriteArrayList<>();
+        this.indexes = NO_INDEXES;
+    }
+
+    public void startExpiry(@NotNull ScheduledExecutorService scheduler) {
+        this.expiry.start(scheduler);
+    }
+
+    public void stopExpiry() {
+        this.expiry.stop();
+    }
+
+    public void purgeExpired() {
+        this.expiry.tick();
+    }
+
+    public void addExpiryListener(@NotNull MetadataExpiryListener listener) {
+        this.expiryListeners.add(listener);
+    }
+
+    public void removeExpiryListener(@NotNull MetadataExpiryListener listener) {
+        this.expiryListeners.remove(listener);
+    }
+
+    public long getScheduledExpiryCount() {
+        return this.expiry.getScheduledCount();
+    }
+
+    public long getExpiredCount() {
+        return this.expiry.getExpiredCount();
+    }
+
+    public boolean isReplicated(@NotNull MetadataKey<?> key) {
+        return isReplicated(key.getId());
+    }
+
+    boolean isReplicated(int id) {
+        MetadataReplicator replicator = this.replicator;
+        return replicator != null && replicator.isReplicated(id);
+    }
+
+    @Nullable MetadataReplicator getReplicator() {
+        return this.replicator;
+    }
+
+    void setReplicator(@Nullable MetadataReplicator replicator) {
+        this.replicator = replicator;
+    }
+
+    void onWrite(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        MetadataReplicator replicator = this.replicator;
+        if (replicator != null) {
+            replicator.markDirty(uniqueId, key);
+        }
+    }
+
+    void scheduleExpiry(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key, long deadline) {
+        this.expiry.schedule(uniqueId, key, deadline);
+    }
+
+    boolean expire(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key, long deadline) {
+        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+        return metadataMap != null && metadataMap.expire(key, deadline);
+    }
+
+    void fireExpired(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key, @Nullable Object value) {
+        for (MetadataExpiryListener listener : this.expiryListeners) {
+            listener.onExpire(uniqueId, key, value);
+        }
+    }
+
+    public synchronized void index(@NotNull MetadataKey<?> key) {
+        if (getIndex(key.getId()) != null) {
+            return;
+        }
+
+        MetadataIndex index = new MetadataIndex(key);
+        MetadataIndex[] indexes = this.indexes;
+        MetadataIndex[] updated = Arrays.copyOf(indexes, Math.max(indexes.length, key.getId() + 1));
+        updated[key.getId()] = index;
+        this.indexes = updated;
+
+        this.playerMetadata.forEach(index::add);
+    }
+
+    public void index(@NotNull String key) {
+        index(MetadataKey.intern(key));
+    }
+
+    public void index(@NotNull Enum<?> key) {
+        index(key.name());
+    }
+
+    public boolean isIndexed(@NotNull MetadataKey<?> key) {
+        return getIndex(key.getId()) != null;
+    }
+
+    public boolean isIndexed(@NotNull String key) {
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        return metadataKey != null && isIndexed(metadataKey);
+    }
+
+    public boolean isIndexed(@NotNull Enum<?> key) {
+        return isIndexed(key.name());
+    }
+
+    @Nullable MetadataIndex getIndex(int id) {
+        MetadataIndex[] indexes = this.indexes;
+        return id < indexes.length ? indexes[id] : null;
+    }
+
+    private @Nullable MetadataIndex getIndex(@NotNull String key) {
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        return metadataKey == null ? null : getIndex(metadataKey.getId());
     }
 
     public void put(@NotNull UUID uniqueId, @NotNull MetadataMap metadataMap) {
-        this.playerMetadata.put(uniqueId, metadataMap);
+        metadataMap.attach(this, uniqueId);
+        while (true) {
+            MetadataMap previous = this.playerMetadata.get(uniqueId);
+            if (previous == metadataMap) {
+                return;
+            }
+
+            if (previous == null) {
+                if (this.playerMetadata.putIfAbsent(uniqueId, metadataMap) == null) {
+                    reindex(uniqueId, metadataMap);
+                    return;
+                }
+                continue;
+            }
+
+            synchronized (previous.getWriteLock()) {
+                if (this.playerMetadata.replace(uniqueId, previous, metadataMap)) {
+                    deindex(uniqueId, previous);
+                    reindex(uniqueId, metadataMap);
+                    return;
+                }
+            }
+        }
     }
 
     public void put(@NotNull UUID uniqueId, @NotNull Metadata<?> metadata) {
-        MetadataMap map = getOrDefault(uniqueId, new MetadataMap());
-        map.put(metadata);
+        write(uniqueId, metadataMap -> metadataMap.put(metadata));
+    }
+
+    public void put(@NotNull UUID uniqueId, @NotNull Metadata<?> metadata, long timeToLive, @NotNull TimeUnit unit) {
+        write(uniqueId, metadataMap -> metadataMap.put(metadata, timeToLive, unit));
+    }
+
+    public <T> void set(@NotNull UUID uniqueId, @NotNull MetadataKey<T> key, @Nullable T value) {
+        write(uniqueId, metadataMap -> metadataMap.set(key, value));
+    }
+
+    public <T> void set(@NotNull UUID uniqueId, @NotNull MetadataKey<T> key, @NotNull T value, long timeToLive, @NotNull TimeUnit unit) {
+        write(uniqueId, metadataMap -> metadataMap.set(key, value, timeToLive, unit));
+    }
+
+    public void setInt(@NotNull UUID uniqueId, @NotNull MetadataKey<Integer> key, int value) {
+        write(uniqueId, metadataMap -> metadataMap.setInt(key, value));
+    }
+
+    public void setLong(@NotNull UUID uniqueId, @NotNull MetadataKey<Long> key, long value) {
+        write(uniqueId, metadataMap -> metadataMap.setLong(key, value));
+    }
+
+    public void setBoolean(@NotNull UUID uniqueId, @NotNull MetadataKey<Boolean> key, boolean value) {
+        write(uniqueId, metadataMap -> metadataMap.setBoolean(key, value));
+    }
 
-        put(uniqueId, map);
+    public MetadataMap getOrCreate(@NotNull UUID uniqueId) {
+        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+        if (metadataMap != null) {
+            return metadataMap;
+        }
+        return this.playerMetadata.computeIfAbsent(uniqueId, id -> {
+            MetadataMap created = new MetadataMap();
+            created.attach(this, id);
+            return created;
+        });
+    }
+
+    public void update(@NotNull UUID uniqueId, @NotNull Consumer<MetadataMap> consumer) {
+        write(uniqueId, consumer);
+    }
+
+    public boolean updateIfPresent(@NotNull UUID uniqueId, @NotNull Consumer<MetadataMap> consumer) {
+        while (true) {
+            MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+            if (metadataMap == null) {
+                return false;
+            }
+
+            synchronized (metadataMap.getWriteLock()) {
+                if (this.playerMetadata.get(uniqueId) == metadataMap) {
+                    consumer.accept(metadataMap);
+                    return true;
+                }
+            }
+        }
+    }
+
+    private void write(@NotNull UUID uniqueId, @NotNull Consumer<MetadataMap> consumer) {
+        while (true) {
+            MetadataMap metadataMap = getOrCreate(uniqueId);
+            synchronized (metadataMap.getWriteLock()) {
+                if (this.playerMetadata.get(uniqueId) == metadataMap) {
+                    consumer.accept(metadataMap);
+                    return;
+                }
+            }
+        }
     }
 
     public Map<UUID, MetadataMap> getAll() {
         return this.playerMetadata;
     }
 
+    public Set<UUID> getHolders(@NotNull MetadataKey<?> key) {
+        MetadataIndex index = getIndex(key.getId());
+        if (index != null) {
+            return index.getHolders();
+        }
+
+        return this.playerMetadata.entrySet().stream()
+                .filter(entry -> entry.getValue().has(key))
+                .map(Map.Entry::getKey)
+                .collect(HashSet::new, HashSet::add, HashSet::addAll);
+    }
+
+    public Set<UUID> getHolders(@NotNull String key) {
+        MetadataKey<?> metadataKey = MetadataKey.byName(key);
+        return metadataKey == null ? new HashSet<>() : getHolders(metadataKey);
+    }
+
+    public Set<UUID> getHolders(@NotNull Enum<?> key) {
+        return getHolders(key.name());
+    }
+
     public Map<UUID, MetadataMap> getByKey(@NotNull String key) {
+        MetadataIndex index = getIndex(key);
+        if (index != null) {
+            return Collections.unmodifiableMap(Maps.filterValues(Maps.asMap(index.getHolders(), this.playerMetadata::get), Objects::nonNull));
+        }
+
         return this.playerMetadata.entrySet().stream()
                 .filter(entry -> entry.getValue().contains(key))
                 .collect(HashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()), HashMap::putAll);
@@ -73,9 +316,29 @@ public final class MetadataStore {
         return getByKey(Arrays.stream(keys).map(Enum::name).toArray(String[]::new));
     }
 
+    public <T> Set<UUID> getByKeyAndValue(@NotNull MetadataKey<T> key, @NotNull T value) {
+        MetadataIndex index = getIndex(key.getId());
+        if (index != null) {
+            return index.getByValue(value);
+        }
+
+        return this.playerMetadata.entrySet().stream()
+                .filter(entry -> value.equals(entry.getValue().get(key)))
+                .map(Map.Entry::getKey)
+                .collect(HashSet::new, HashSet::add, HashSet::addAll);
+    }
+
     public <T> Set<UUID> getByKeyAndValue(@NotNull String key, @NotNull T value) {
+        MetadataIndex index = getIndex(key);
+        if (index != null) {
+            return index.getByValue(value);
+        }
+
         return getByKey(key).entrySet().stream()
-                .filter(entry -> entry.getValue().get(key).equals(value))
+                .filter(entry -> {
+                    Metadata<?> metadata = entry.getValue().get(key);
+                    return metadata != null && value.equals(metadata.getValue());
+                })
                 .map(Map.Entry::getKey)
                 .collect(HashSet::new, HashSet::add, HashSet::addAll);
     }
@@ -88,18 +351,19 @@ public final class MetadataStore {
         return this.playerMetadata.get(uniqueId);
     }
 
-    @SuppressWarnings("unchecked")
-    public <T> @Nullable T get(@NotNull UUID uniqueId, @NotNull String key) {
-        if (!this.playerMetadata.containsKey(uniqueId)) {
-            return null;
-        }
+    public <T> @Nullable T get(@NotNull UUID uniqueId, @NotNull MetadataKey<T> key) {
+        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+        return metadataMap == null ? null : metadataMap.get(key);
+    }
 
+    public <T> @Nullable T get(@NotNull UUID uniqueId, @NotNull String key) {
         MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
-        if (!metadataMap.contains(key)) {
+        if (metadataMap == null) {
             return null;
         }
 
-        return (T) metadataMap.get(key).getValue();
+        Metadata<T> metadata = metadataMap.get(key);
+        return metadata == null ? null : metadata.getValue();
     }
 
     public <T> @Nullable T get(@NotNull UUID uniqueId, @NotNull Enum<?> key) {
@@ -111,21 +375,19 @@ public final class MetadataStore {
     }
 
     public boolean ifPresent(@NotNull UUID uniqueId, @NotNull Consumer<MetadataMap> consumer) {
-        if (this.playerMetadata.containsKey(uniqueId)) {
-            consumer.accept(this.playerMetadata.get(uniqueId));
-            return true;
+        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+        if (metadataMap == null) {
+            return false;
         }
-        return false;
+
+        consumer.accept(metadataMap);
+        return true;
     }
 
     public void ifPresent(@NotNull UUID uniqueId, @NotNull String key,
                           @NotNull Consumer<MetadataMap> consumer) {
-        if (!this.playerMetadata.containsKey(uniqueId)) {
-            return;
-        }
-
         MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
-        if (metadataMap.contains(key)) {
+        if (metadataMap != null && metadataMap.contains(key)) {
             consumer.accept(metadataMap);
         }
     }
@@ -139,27 +401,38 @@ public final class MetadataStore {
         return this.playerMetadata.containsKey(uniqueId);
     }
 
-    public boolean containsKey(@NotNull UUID uniqueId, @NotNull String key) {
-        if (!this.playerMetadata.containsKey(uniqueId)) {
-            return false;
-        }
+    public boolean has(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+        return metadataMap != null && metadataMap.has(key);
+    }
 
+    public boolean containsKey(@NotNull UUID uniqueId, @NotNull String key) {
         MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
-        return metadataMap.contains(key);
+        return metadataMap != null && metadataMap.contains(key);
     }
 
     public void remove(@NotNull UUID uniqueId) {
-        this.playerMetadata.remove(uniqueId);
+        while (true) {
+            MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
+            if (metadataMap == null) {
+                return;
+            }
+
+            synchronized (metadataMap.getWriteLock()) {
+                if (this.playerMetadata.remove(uniqueId, metadataMap)) {
+                    deindex(uniqueId, metadataMap);
+                    return;
+                }
+            }
+        }
     }
 
-    public void remove(@NotNull UUID uniqueId, @NotNull String key) {
-        if (!this.playerMetadata.containsKey(uniqueId)) {
-            return;
-        }
+    public void remove(@NotNull UUID uniqueId, @NotNull MetadataKey<?> key) {
+        updateIfPresent(uniqueId, metadataMap -> metadataMap.remove(key));
+    }
 
-        MetadataMap metadataMap = this.playerMetadata.get(uniqueId);
-        metadataMap.remove(key);
-        this.playerMetadata.put(uniqueId, metadataMap);
+    public void remove(@NotNull UUID uniqueId, @NotNull String key) {
+        updateIfPresent(uniqueId, metadataMap -> metadataMap.remove(key));
     }
 
     public void remove(@NotNull UUID uniqueId, @NotNull Enum<?> key) {
@@ -167,7 +440,26 @@ public final class MetadataStore {
     }
 
     public void clear() {
-        this.playerMetadata.clear();
+        for (UUID uniqueId : this.playerMetadata.keySet()) {
+            remove(uniqueId);
+        }
+    }
+
+    private void reindex(@NotNull UUID uniqueId, @NotNull MetadataMap metadataMap) {
+        for (MetadataIndex index : this.indexes) {
+            if (index != null) {
+                index.add(uniqueId, metadataMap);
+            }
+        }
+    }
+
+    private void deindex(@NotNull UUID uniqueId, @NotNull MetadataMap metadataMap) {
+        metadataMap.detach();
+        for (MetadataIndex index : this.indexes) {
+            if (index != null) {
+                index.discard(uniqueId, metadataMap);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+final class DispatchQueue {
+    private final Deque<Slot> slots;
+    private final Map<String, Slot> pendingByKey;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+
+    private final LongAdder droppedCount;
+    private final LongAdder coalescedCount;
+
+    private volatile int capacity;
+    private volatile OverflowPolicy overflowPolicy;
+    private volatile long blockTimeout;
+    private volatile @Nullable Function<MessageEnvelope, String> coalescingKey;
+    private volatile int size;
+    private volatile int maxSize;
+
+    DispatchQueue(int capacity, @NotNull OverflowPolicy overflowPolicy, long blockTimeout) {
+        this.slots = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.pendingByKey = Maps.newHashMap();
+        this.lock = new ReentrantLock();
+        this.notFull = this.lock.newCondition();
+        this.droppedCount = new LongAdder();
+        this.coalescedCount = new LongAdder();
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+    }
+
+    boolean offer(@NotNull MessageEnvelope envelope, @Nullable Runnable callback) {
+        this.lock.lock();
+        try {
+            if (this.slots.size() >= this.capacity && !makeRoom(envelope, callback)) {
+                return false;
+            }
+
+            Slot slot = new Slot(envelope, callback, coalescingKey(envelope));
+            this.slots.addLast(slot);
+            if (slot.coalescingKey != null) {
+                this.pendingByKey.put(slot.coalescingKey, slot);
+            }
+            updateSize();
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean makeRoom(@NotNull MessageEnvelope envelope, @Nullable Runnable callback) {
+        switch (this.overflowPolicy) {
+            case DROP_NEWEST:
+                this.droppedCount.increment();
+                return false;
+            case BLOCK:
+                long remaining = TimeUnit.MILLISECONDS.toNanos(this.blockTimeout);
+                try {
+                    while (this.slots.size() >= this.capacity) {
+                        if (remaining <= 0) {
+                            this.droppedCount.increment();
+                            return false;
+                        }
+                        remaining = this.notFull.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    this.droppedCount.increment();
+                    return false;
+                }
+                return true;
+            case COALESCE_BY_KEY:
+                String key = coalescingKey(envelope);
+                Slot pending = key == null ? null : this.pendingByKey.get(key);
+                if (pending != null) {
+                    pending.envelope = envelope;
+                    pending.callback = chain(pending.callback, callback);
+                    this.coalescedCount.increment();
+                    return false;
+                }
+                dropOldest();
+                return true;
+            default:
+                dropOldest();
+                return true;
+        }
+    }
+
+    private void dropOldest() {
+        Slot slot = this.slots.pollFirst();
+        if (slot != null) {
+            unindex(slot);
+            this.droppedCount.increment();
+        }
+    }
+
+    @Nullable Slot poll() {
+        this.lock.lock();
+        try {
+            Slot slot = this.slots.pollFirst();
+            if (slot == null) {
+                return null;
+            }
+
+            unindex(slot);
+            updateSize();
+            this.notFull.signal();
+            return slot;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void clear() {
+        this.lock.lock();
+        try {
+            this.droppedCount.add(this.slots.size());
+            this.slots.clear();
+            this.pendingByKey.clear();
+            updateSize();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void updateSize() {
+        int size = this.slots.size();
+        this.size = size;
+        if (size > this.maxSize) {
+            this.maxSize = size;
+        }
+    }
+
+    private static @Nullable Runnable chain(@Nullable Runnable first, @Nullable Runnable second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        return () -> {
+            first.run();
+            second.run();
+        };
+    }
+
+    private @Nullable String coalescingKey(@NotNull MessageEnvelope envelope) {
+        Function<MessageEnvelope, String> coalescingKey = this.coalescingKey;
+        return coalescingKey == null ? null : coalescingKey.apply(envelope);
+    }
+
+    private void unindex(@NotNull Slot slot) {
+        if (slot.coalescingKey != null) {
+            this.pendingByKey.remove(slot.coalescingKey, slot);
+        }
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int getMaxSize() {
+        return this.maxSize;
+    }
+
+    long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    long getCoalescedCount() {
+        return this.coalescedCount.sum();
+    }
+
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.lock.lock();
+        try {
+            this.capacity = capacity;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    void setOverflowPolicy(@NotNull OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    long getBlockTimeout() {
+        return this.blockTimeout;
+    }
+
+    void setBlockTimeout(long blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    @Nullable Function<MessageEnvelope, String> getCoalescingKey() {
+        return this.coalescingKey;
+    }
+
+    void setCoalescingKey(@Nullable Function<MessageEnvelope, String> coalescingKey) {
+        this.lock.lock();
+        try {
+            this.coalescingKey = coalescingKey;
+            this.pendingByKey.clear();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    static final class Slot {
+        private MessageEnvelope envelope;
+        private @Nullable Runnable callback;
+        private final @Nullable String coalescingKey;
+
+        private Slot(MessageEnvelope envelope, @Nullable Runnable callback, @Nullable String coalescingKey) {
+            this.envelope = envelope;
+            this.callback = callback;
+            this.coalescingKey = coalescingKey;
+        }
+
+        MessageEnvelope getEnvelope() {
+            return this.envelope;
+        }
+
+        @Nullable Runnable getCallback() {
+            return this.callback;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import dev.kafein.multiduels.common.redis.codec.Decoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class RedisAsyncCache {
+    private final RedisClient client;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long timeout;
+    private final boolean sync;
+
+    RedisAsyncCache(RedisClient client, ExecutorService executor, ScheduledExecutorService timer, long timeout, boolean sync) {
+        this.client = client;
+        this.executor = executor;
+        this.timer = timer;
+        this.timeout = timeout;
+        this.sync = sync;
+    }
+
+    public RedisAsyncCache sync() {
+        return this.sync ? this : new RedisAsyncCache(this.client, this.executor, this.timer, this.timeout, true);
+    }
+
+    public RedisAsyncCache async() {
+        return this.sync ? new RedisAsyncCache(this.client, this.executor, this.timer, this.timeout, false) : this;
+    }
+
+    public RedisAsyncCache withTimeout(@NotNull Duration timeout) {
+        return withTimeout(timeout.toMillis());
+    }
+
+    public RedisAsyncCache withTimeout(long timeout) {
+        checkArgument(timeout > 0, "timeout must be positive");
+        return new RedisAsyncCache(this.client, this.executor, this.timer, timeout, this.sync);
+    }
+
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    public boolean isSync() {
+        return this.sync;
+    }
+
+    public CompletableFuture<Boolean> exists(@NotNull String key) {
+        return supply(cache -> cache.exists(key));
+    }
+
+    public CompletableFuture<String> get(@NotNull String key) {
+        return supply(cache -> cache.get(key));
+    }
+
+    public <T> CompletableFuture<T> getDecoded(@NotNull String key, @NotNull Class<T> type) {
+        return supply(cache -> cache.getDecoded(key, type));
+    }
+
+    public <T> CompletableFuture<T> getDecoded(@NotNull String key, @NotNull Decoder<T> decoder) {
+        return supply(cache -> cache.getDecoded(key, decoder));
+    }
+
+    public CompletableFuture<byte[]> getBinary(@NotNull String key) {
+        return supply(cache -> cache.getBinary(key));
+    }
+
+    public <T> CompletableFuture<T> getBinary(@NotNull String key, @NotNull Class<T> type) {
+        return supply(cache -> cache.getBinary(key, type));
+    }
+
+    public CompletableFuture<Map<String, String>> getAll(@NotNull Collection<String> keys) {
+        return supply(cache -> cache.getAll(keys));
+    }
+
+    public <T> CompletableFuture<Map<String, T>> getAllDecoded(@NotNull Collection<String> keys, @NotNull Decoder<T> decoder) {
+        return supply(cache -> cache.getAllDecoded(keys, decoder));
+    }
+
+    public CompletableFuture<Map<String, String>> getFields(@NotNull String key) {
+        return supply(cache -> cache.getFields(key));
+    }
+
+    public CompletableFuture<Map<String, String>> getFields(@NotNull String key, @NotNull String... fields) {
+        return supply(cache -> cache.getFields(key, fields));
+    }
+
+    public CompletableFuture<Void> set(@NotNull String key, @NotNull String value) {
+        return run(cache -> cache.set(key, value));
+    }
+
+    public CompletableFuture<Void> set(@NotNull String key, @NotNull String value, @NotNull Duration duration) {
+        return run(cache -> cache.set(key, value, duration));
+    }
+
+    public <T> CompletableFuture<Void> setDecoded(@NotNull String key, @NotNull T value, @NotNull Decoder<T> decoder) {
+        return run(cache -> cache.setDecoded(key, value, decoder));
+    }
+
+    public <T> CompletableFuture<Void> setDecoded(@NotNull String key, @NotNull T value, @NotNull Decoder<T> decoder, @NotNull Duration duration) {
+        return run(cache -> cache.setDecoded(key, value, decoder, duration));
+    }
+
+    public CompletableFuture<Void> setBinary(@NotNull String key, @NotNull byte[] value) {
+        return run(cache -> cache.setBinary(key, value));
+    }
+
+    public CompletableFuture<Void> setAll(@NotNull Map<String, String> values) {
+        return run(cache -> cache.setAll(values));
+    }
+
+    public CompletableFuture<Void> setAll(@NotNull Map<String, String> values, @NotNull Duration duration) {
+        return run(cache -> cache.setAll(values, duration));
+    }
+
+    public CompletableFuture<Void> setFields(@NotNull String key, @NotNull Map<String, String> fields) {
+        return run(cache -> cache.setFields(key, fields));
+    }
+
+    public CompletableFuture<Void> expire(@NotNull String key, @NotNull Duration duration) {
+        return run(cache -> cache.expire(key, duration));
+    }
+
+    public CompletableFuture<Void> delete(@NotNull String key) {
+        return run(cache -> cache.delete(key));
+    }
+
+    public CompletableFuture<Void> run(@NotNull Consumer<RedisCache> consumer) {
+        return supply(cache -> {
+            consumer.accept(cache);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> supply(@NotNull Function<RedisCache, T> function) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        Future<?> task;
+        try {
+            task = this.executor.submit(() -> {
+                try {
+                    future.complete(function.apply(this.client.getCache()));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return complete(future);
+        }
+
+        ScheduledFuture<?> timeoutTask = this.timer.schedule(() -> {
+            if (future.completeExceptionally(new TimeoutException("Redis operation timed out after " + this.timeout + "ms"))) {
+                task.cancel(false);
+            }
+        }, this.timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, throwable) -> timeoutTask.cancel(false));
+
+        return complete(future);
+    }
+
+    private <T> CompletableFuture<T> complete(@NotNull CompletableFuture<T> future) {
+        if (!this.sync) {
+            return future;
+        }
+
+        CompletableFuture<T> synced = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> this.client.getSyncExecutor().execute(() -> {
+            if (throwable != null) {
+                synced.completeExceptionally(throwable);
+            } else {
+                synced.complete(result);
+            }
+        }));
+        return synced;
+    }
+}
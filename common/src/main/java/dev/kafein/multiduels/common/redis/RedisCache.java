@@ -24,11 +24,22 @@
 
 package dev.kafein.multiduels.common.redis;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
 import dev.kafein.multiduels.common.redis.codec.Decoder;
 import org.jetbrains.annotations.NotNull;
-import redis.clients.jedis.Jedis;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Response;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -40,15 +51,16 @@ public final class RedisCache {
     }
 
     public boolean exists(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.exists(key);
-        }
+        return this.client.getRedis().exists(key);
     }
 
     public String get(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.get(key);
+        RedisNearCache nearCache = this.client.getNearCache();
+        if (nearCache != null) {
+            return nearCache.get(key);
         }
+
+        return this.client.getRedis().get(key);
     }
 
     public <T> T getDecoded(@NotNull String key, @NotNull Class<T> type) {
@@ -59,6 +71,11 @@ public final class RedisCache {
     }
 
     public <T> T getDecoded(@NotNull String key, @NotNull Decoder<T> decoder) {
+        RedisNearCache nearCache = this.client.getNearCache();
+        if (nearCache != null) {
+            return nearCache.getDecoded(key, decoder);
+        }
+
         String value = get(key);
         if (value == null) {
             return null;
@@ -67,10 +84,92 @@ public final class RedisCache {
         return decoder.decode(value);
     }
 
-    public void set(@NotNull String key, @NotNull String value) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.set(key, value);
+    public byte[] getBinary(@NotNull String key) {
+        return this.client.getRedis().get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public <T> T getBinary(@NotNull String key, @NotNull Class<T> type) {
+        BinaryCodec<T> codec = this.client.getDecoders().getCodec(type);
+        checkNotNull(codec, "Codec for key " + key + " is not registered");
+
+        return getBinary(key, codec);
+    }
+
+    public <T> T getBinary(@NotNull String key, @NotNull BinaryCodec<T> codec) {
+        byte[] value = getBinary(key);
+        if (value == null) {
+            return null;
+        }
+
+        return ByteBuffers.decode(codec, value);
+    }
+
+    public Map<String, String> getAll(@NotNull String... keys) {
+        return getAll(Arrays.asList(keys));
+    }
+
+    public Map<String, String> getAll(@NotNull Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
         }
+
+        Map<String, String> result = Maps.newLinkedHashMapWithExpectedSize(keys.size());
+        if (!this.client.isClustered()) {
+            String[] keyArray = keys.toArray(new String[0]);
+            collect(result, keyArray, this.client.getRedis().mget(keyArray));
+            return result;
+        }
+
+        List<String[]> partitions = partition(keys);
+        List<Response<List<String>>> responses = Lists.newArrayListWithCapacity(partitions.size());
+        this.client.pipelined(pipeline -> {
+            for (String[] partition : partitions) {
+                responses.add(pipeline.mget(partition));
+            }
+        });
+
+        Map<String, String> values = Maps.newHashMapWithExpectedSize(keys.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            collect(values, partitions.get(i), responses.get(i).get());
+        }
+
+        for (String key : keys) {
+            String value = values.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    private static void collect(@NotNull Map<String, String> result, @NotNull String[] keys, @NotNull List<String> values) {
+        for (int i = 0; i < keys.length; i++) {
+            String value = values.get(i);
+            if (value != null) {
+                result.put(keys[i], value);
+            }
+        }
+    }
+
+    public <T> Map<String, T> getAllDecoded(@NotNull Collection<String> keys, @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+        return getAllDecoded(keys, decoder);
+    }
+
+    public <T> Map<String, T> getAllDecoded(@NotNull Collection<String> keys, @NotNull Decoder<T> decoder) {
+        Map<String, String> values = getAll(keys);
+
+        Map<String, T> result = Maps.newLinkedHashMapWithExpectedSize(values.size());
+        values.forEach((key, value) -> result.put(key, decoder.decode(value)));
+        return result;
+    }
+
+    public void set(@NotNull String key, @NotNull String value) {
+        this.client.getRedis().set(key, value);
+
+        invalidate(key);
     }
 
     public void set(@NotNull String key, @NotNull String value, @NotNull Duration duration) {
@@ -78,9 +177,9 @@ public final class RedisCache {
     }
 
     public void set(@NotNull String key, @NotNull String value, long duration) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.psetex(key, duration, value);
-        }
+        this.client.getRedis().psetex(key, duration, value);
+
+        invalidate(key);
     }
 
     public <T> void setDecoded(@NotNull String key, @NotNull T value, @NotNull Class<T> type) {
@@ -102,19 +201,239 @@ public final class RedisCache {
         set(key, decoder.encode(value), duration);
     }
 
+    public void setAll(@NotNull Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        if (!this.client.isClustered()) {
+            this.client.getRedis().mset(flatten(values, values.keySet().toArray(new String[0])));
+        } else {
+            List<String[]> partitions = partition(values.keySet());
+            this.client.pipelined(pipeline -> {
+                for (String[] partition : partitions) {
+                    pipeline.mset(flatten(values, partition));
+                }
+            });
+        }
+
+        invalidate(values.keySet());
+    }
+
+    private static String[] flatten(@NotNull Map<String, String> values, @NotNull String[] keys) {
+        String[] keysValues = new String[keys.length * 2];
+        int index = 0;
+        for (String key : keys) {
+            keysValues[index++] = key;
+            keysValues[index++] = values.get(key);
+        }
+        return keysValues;
+    }
+
+    public void setAll(@NotNull Map<String, String> values, @NotNull Duration duration) {
+        setAll(values, duration.toMillis());
+    }
+
+    public void setAll(@NotNull Map<String, String> values, long duration) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        this.client.pipelined(pipeline -> values.forEach((key, value) -> pipeline.psetex(key, duration, value)));
+
+        invalidate(values.keySet());
+    }
+
+    public <T> void setAllDecoded(@NotNull Map<String, T> values, @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+        setAllDecoded(values, decoder);
+    }
+
+    public <T> void setAllDecoded(@NotNull Map<String, T> values, @NotNull Decoder<T> decoder) {
+        setAll(encodeAll(values, decoder));
+    }
+
+    public <T> void setAllDecoded(@NotNull Map<String, T> values, @NotNull Decoder<T> decoder, @NotNull Duration duration) {
+        setAllDecoded(values, decoder, duration.toMillis());
+    }
+
+    public <T> void setAllDecoded(@NotNull Map<String, T> values, @NotNull Decoder<T> decoder, long duration) {
+        setAll(encodeAll(values, decoder), duration);
+    }
+
+    private <T> Map<String, String> encodeAll(@NotNull Map<String, T> values, @NotNull Decoder<T> decoder) {
+        Map<String, String> encoded = Maps.newLinkedHashMapWithExpectedSize(values.size());
+        values.forEach((key, value) -> encoded.put(key, decoder.encode(value)));
+        return encoded;
+    }
+
+    public void setBinary(@NotNull String key, @NotNull byte[] value) {
+        this.client.getRedis().set(key.getBytes(StandardCharsets.UTF_8), value);
+
+        invalidate(key);
+    }
+
+    public void setBinary(@NotNull String key, @NotNull byte[] value, @NotNull Duration duration) {
+        setBinary(key, value, duration.toMillis());
+    }
+
+    public void setBinary(@NotNull String key, @NotNull byte[] value, long duration) {
+        this.client.getRedis().psetex(key.getBytes(StandardCharsets.UTF_8), duration, value);
+
+        invalidate(key);
+    }
+
+    public <T> void setBinary(@NotNull String key, @NotNull T value, @NotNull Class<T> type) {
+        BinaryCodec<T> codec = this.client.getDecoders().getCodec(type);
+        checkNotNull(codec, "Codec for key " + key + " is not registered");
+
+        setBinary(key, value, codec);
+    }
+
+    public <T> void setBinary(@NotNull String key, @NotNull T value, @NotNull BinaryCodec<T> codec) {
+        setBinary(key, ByteBuffers.encode(codec, value));
+    }
+
+    public <T> void setBinary(@NotNull String key, @NotNull T value, @NotNull BinaryCodec<T> codec, @NotNull Duration duration) {
+        setBinary(key, value, codec, duration.toMillis());
+    }
+
+    public <T> void setBinary(@NotNull String key, @NotNull T value, @NotNull BinaryCodec<T> codec, long duration) {
+        setBinary(key, ByteBuffers.encode(codec, value), duration);
+    }
+
+    public @Nullable String getField(@NotNull String key, @NotNull String field) {
+        return this.client.getRedis().hget(key, field);
+    }
+
+    public <T> @Nullable T getFieldDecoded(@NotNull String key, @NotNull String field, @NotNull Decoder<T> decoder) {
+        String value = getField(key, field);
+        if (value == null) {
+            return null;
+        }
+
+        return decoder.decode(value);
+    }
+
+    public Map<String, String> getFields(@NotNull String key) {
+        return this.client.getRedis().hgetAll(key);
+    }
+
+    public Map<String, String> getFields(@NotNull String key, @NotNull String... fields) {
+        if (fields.length == 0) {
+            return Collections.emptyMap();
+        }
+
+        List<String> values = this.client.getRedis().hmget(key, fields);
+
+        Map<String, String> result = Maps.newLinkedHashMapWithExpectedSize(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            String value = values.get(i);
+            if (value != null) {
+                result.put(fields[i], value);
+            }
+        }
+        return result;
+    }
+
+    public void setField(@NotNull String key, @NotNull String field, @NotNull String value) {
+        this.client.getRedis().hset(key, field, value);
+    }
+
+    public <T> void setFieldDecoded(@NotNull String key, @NotNull String field, @NotNull T value, @NotNull Decoder<T> decoder) {
+        setField(key, field, decoder.encode(value));
+    }
+
+    public void setFields(@NotNull String key, @NotNull Map<String, String> fields) {
+        if (fields.isEmpty()) {
+            return;
+        }
+
+        this.client.getRedis().hset(key, fields);
+    }
+
+    public void setFields(@NotNull String key, @NotNull Map<String, String> fields, @NotNull Duration duration) {
+        setFields(key, fields, duration.toMillis());
+    }
+
+    public void setFields(@NotNull String key, @NotNull Map<String, String> fields, long duration) {
+        if (fields.isEmpty()) {
+            return;
+        }
+
+        this.client.pipelined(pipeline -> {
+            pipeline.hset(key, fields);
+            pipeline.pexpire(key, duration);
+        });
+    }
+
+    public long incrementField(@NotNull String key, @NotNull String field, long amount) {
+        return this.client.getRedis().hincrBy(key, field, amount);
+    }
+
+    public void deleteFields(@NotNull String key, @NotNull String... fields) {
+        if (fields.length == 0) {
+            return;
+        }
+
+        this.client.getRedis().hdel(key, fields);
+    }
+
     public void expire(@NotNull String key, @NotNull Duration duration) {
         expire(key, duration.toMillis());
     }
 
     public void expire(@NotNull String key, long duration) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.pexpire(key, duration);
-        }
+        this.client.getRedis().pexpire(key, duration);
     }
 
     public void delete(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.del(key);
+        this.client.getRedis().del(key);
+
+        invalidate(key);
+    }
+
+    public void delete(@NotNull String... keys) {
+        if (keys.length == 0) {
+            return;
+        }
+
+        if (!this.client.isClustered()) {
+            this.client.getRedis().del(keys);
+        } else {
+            List<String[]> partitions = partition(Arrays.asList(keys));
+            this.client.pipelined(pipeline -> {
+                for (String[] partition : partitions) {
+                    pipeline.del(partition);
+                }
+            });
+        }
+
+        invalidate(Arrays.asList(keys));
+    }
+
+    private static List<String[]> partition(@NotNull Collection<String> keys) {
+        Collection<List<String>> slots = RedisKeys.partitionBySlot(keys).values();
+        List<String[]> partitions = Lists.newArrayListWithCapacity(slots.size());
+        for (List<String> slot : slots) {
+            partitions.add(slot.toArray(new String[0]));
+        }
+        return partitions;
+    }
+
+    private void invalidate(@NotNull String key) {
+        RedisNearCache nearCache = this.client.getNearCache();
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private void invalidate(@NotNull Collection<String> keys) {
+        RedisNearCache nearCache = this.client.getNearCache();
+        if (nearCache != null) {
+            nearCache.invalidate(keys);
         }
     }
 }
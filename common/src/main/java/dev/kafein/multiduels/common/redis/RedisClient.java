@@ -25,91 +25,375 @@
 package dev.kafein.multiduels.common.redis;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
 import dev.kafein.multiduels.common.redis.codec.Decoder;
 import dev.kafein.multiduels.common.redis.codec.DecoderCollection;
 import dev.kafein.multiduels.common.redis.message.Message;
 import dev.kafein.multiduels.common.redis.message.MessageListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ClusterPipeline;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.commands.PipelineBinaryCommands;
+import redis.clients.jedis.commands.PipelineCommands;
+import redis.clients.jedis.providers.ConnectionProvider;
+import redis.clients.jedis.util.Pool;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public final class RedisClient {
+    static final String CLIENT_COMPONENT = "client";
+
     private final RedisCredentials credentials;
+    private final RedisOptions options;
+    private final ExecutorService executorService;
+    private final ExecutorService workerPool;
+    private final ExecutorService asyncExecutor;
+    private final ExecutorService streamExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService timer;
     private final RedisCache cache;
+    private final RedisAsyncCache asyncCache;
     private final RedisOperations operations;
     private final DecoderCollection decoders;
-    private final ExecutorService executorService;
+    private final @Nullable RedisNearCache nearCache;
+    private final RedisPoolMetrics poolMetrics;
+    private final RedisRpc rpc;
+    private final RedisScripts scripts;
+    private final RedisLocks locks;
 
-    private JedisPool jedisPool;
+    private ConnectionProvider provider;
+    private UnifiedJedis redis;
+    private final List<RedisConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<RedisConnectionState> connectionState = new AtomicReference<>(RedisConnectionState.DISCONNECTED);
+    private final Map<String, RedisConnectionState> componentStates = new ConcurrentHashMap<>(Collections.singletonMap(CLIENT_COMPONENT, RedisConnectionState.DISCONNECTED));
+    private volatile Executor syncExecutor = Runnable::run;
     private boolean closed;
 
     public RedisClient(RedisCredentials credentials) {
+        this(credentials, RedisOptions.defaults());
+    }
+
+    public RedisClient(RedisCredentials credentials, RedisOptions options) {
         this.credentials = credentials;
-        this.cache = new RedisCache(this);
-        this.operations = new RedisOperations(this);
-        this.decoders = new DecoderCollection();
+        this.options = options;
         this.executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
                 .setNameFormat("multiduels-redis-%d")
                 .setDaemon(true)
                 .build());
+        this.workerPool = Executors.newFixedThreadPool(options.getSubscriberThreads(), new ThreadFactoryBuilder()
+                .setNameFormat("multiduels-redis-worker-%d")
+                .setDaemon(true)
+                .build());
+        this.asyncExecutor = new ThreadPoolExecutor(options.getAsyncThreads(), options.getAsyncThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(options.getAsyncQueueSize()),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("multiduels-redis-async-%d")
+                        .setDaemon(true)
+                        .build());
+        this.streamExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("multiduels-redis-stream-%d")
+                .setDaemon(true)
+                .build());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("multiduels-redis-scheduler-%d")
+                .setDaemon(true)
+                .build());
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("multiduels-redis-timer-%d")
+                .setDaemon(true)
+                .build());
+        this.cache = new RedisCache(this);
+        this.asyncCache = new RedisAsyncCache(this, this.asyncExecutor, this.timer, options.getAsyncTimeout(), false);
+        this.operations = new RedisOperations(this);
+        this.decoders = new DecoderCollection();
+        this.scripts = new RedisScripts(this);
+        this.nearCache = options.isNearCacheEnabled()
+                ? new RedisNearCache(this, options.getNearCacheSize(), options.getNearCacheExpiry())
+                : null;
+        this.poolMetrics = new RedisPoolMetrics(this);
+        this.rpc = new RedisRpc(this, this.timer, options.getRpcTimeout());
+        this.locks = new RedisLocks(this, this.asyncExecutor, this.timer);
     }
 
     public RedisCredentials getCredentials() {
         return this.credentials;
     }
 
+    public RedisOptions getOptions() {
+        return this.options;
+    }
+
     public void connect() {
-        this.jedisPool = RedisConnector.connect(this.credentials);
+        updateConnectionState(CLIENT_COMPONENT, RedisConnectionState.CONNECTING);
+        this.provider = RedisConnector.connect(this.credentials, this.poolMetrics);
+        this.redis = RedisConnector.createClient(this.provider, this.credentials.getPoolSettings());
+        this.scripts.loadAll();
+        updateConnectionState(CLIENT_COMPONENT, RedisConnectionState.CONNECTED);
+        this.operations.getPublisher().start();
+        this.rpc.start();
+
+        if (this.nearCache != null) {
+            this.nearCache.subscribe();
+        }
     }
 
     public void disconnect() {
         this.closed = true;
+        this.rpc.close();
         this.operations.unsubscribeAll();
-        this.jedisPool.close();
+        this.operations.getPublisher().stop();
+        this.workerPool.shutdown();
+        this.asyncExecutor.shutdown();
+        this.streamExecutor.shutdown();
+        this.scheduler.shutdown();
+        this.timer.shutdown();
+        this.redis.close();
+        updateConnectionState(CLIENT_COMPONENT, RedisConnectionState.DISCONNECTED);
+    }
+
+    public UnifiedJedis getRedis() {
+        return this.redis;
+    }
+
+    public RedisTopology getTopology() {
+        return this.credentials.getTopology();
+    }
+
+    public boolean isClustered() {
+        return this.redis instanceof JedisCluster;
+    }
+
+    Connection getConnection() {
+        return this.provider.getConnection();
+    }
+
+    void pipelined(@NotNull Consumer<PipelineCommands> consumer) {
+        if (this.redis instanceof JedisCluster) {
+            try (ClusterPipeline pipeline = ((JedisCluster) this.redis).pipelined()) {
+                consumer.accept(pipeline);
+            }
+            return;
+        }
+
+        try (Pipeline pipeline = new Pipeline(getConnection(), true)) {
+            consumer.accept(pipeline);
+        }
+    }
+
+    void pipelinedBinary(@NotNull Consumer<PipelineBinaryCommands> consumer) {
+        if (this.redis instanceof JedisCluster) {
+            try (ClusterPipeline pipeline = ((JedisCluster) this.redis).pipelined()) {
+                consumer.accept(pipeline);
+            }
+            return;
+        }
+
+        try (Pipeline pipeline = new Pipeline(getConnection(), true)) {
+            consumer.accept(pipeline);
+        }
+    }
+
+    Collection<? extends Pool<Connection>> getPools() {
+        return this.provider == null ? Collections.emptyList() : RedisConnector.getPools(this.provider);
     }
 
-    public JedisPool getJedisPool() {
-        return this.jedisPool;
+    public RedisPoolMetrics getPoolMetrics() {
+        return this.poolMetrics;
     }
 
     public boolean isClosed() {
         return this.closed;
     }
 
+    ExecutorService getExecutorService() {
+        return this.executorService;
+    }
+
+    public ExecutorService getWorkerPool() {
+        return this.workerPool;
+    }
+
+    ExecutorService getStreamExecutor() {
+        return this.streamExecutor;
+    }
+
+    ScheduledExecutorService getScheduler() {
+        return this.scheduler;
+    }
+
+    ScheduledExecutorService getTimer() {
+        return this.timer;
+    }
+
+    public Executor getSyncExecutor() {
+        return this.syncExecutor;
+    }
+
+    public void setSyncExecutor(@NotNull Executor syncExecutor) {
+        this.syncExecutor = syncExecutor;
+    }
+
+    public RedisConnectionState getConnectionState() {
+        return this.connectionState.get();
+    }
+
+    public @Nullable RedisConnectionState getConnectionState(@NotNull String component) {
+        return this.componentStates.get(component);
+    }
+
+    public Map<String, RedisConnectionState> getComponentStates() {
+        return Collections.unmodifiableMap(this.componentStates);
+    }
+
+    public boolean isConnected() {
+        return this.connectionState.get() == RedisConnectionState.CONNECTED;
+    }
+
+    public void addConnectionListener(@NotNull RedisConnectionListener listener) {
+        this.connectionListeners.add(listener);
+    }
+
+    public void removeConnectionListener(@NotNull RedisConnectionListener listener) {
+        this.connectionListeners.remove(listener);
+    }
+
+    void updateConnectionState(@NotNull String component, @NotNull RedisConnectionState state) {
+        if (this.componentStates.put(component, state) != state) {
+            updateAggregateState();
+        }
+    }
+
+    void removeConnectionState(@NotNull String component) {
+        if (this.componentStates.remove(component) != null) {
+            updateAggregateState();
+        }
+    }
+
+    private void updateAggregateState() {
+        synchronized (this.componentStates) {
+            RedisConnectionState state = RedisConnectionState.CONNECTED;
+            for (RedisConnectionState componentState : this.componentStates.values()) {
+                if (severity(componentState) > severity(state)) {
+                    state = componentState;
+                }
+            }
+
+            RedisConnectionState previous = this.connectionState.getAndSet(state);
+            if (previous == state) {
+                return;
+            }
+
+            RedisConnectionState current = state;
+            this.syncExecutor.execute(() -> {
+                for (RedisConnectionListener listener : this.connectionListeners) {
+                    listener.onStateChange(previous, current);
+                }
+            });
+        }
+    }
+
+    private static int severity(@NotNull RedisConnectionState state) {
+        switch (state) {
+            case CONNECTED:
+                return 0;
+            case CONNECTING:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
     public RedisCache getCache() {
         return this.cache;
     }
 
+    public RedisAsyncCache getAsyncCache() {
+        return this.asyncCache;
+    }
+
+    public @Nullable RedisNearCache getNearCache() {
+        return this.nearCache;
+    }
+
+    public RedisScripts getScripts() {
+        return this.scripts;
+    }
+
+    public RedisLocks getLocks() {
+        return this.locks;
+    }
+
+    public RedisRpc getRpc() {
+        return this.rpc;
+    }
+
     public RedisOperations getOperations() {
         return this.operations;
     }
 
-    public <T> void publish(@NotNull String channel, @NotNull Message message) {
-        this.operations.publish(channel, message);
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @NotNull Message message) {
+        return this.operations.publish(channel, message);
+    }
+
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @NotNull T message) {
+        return this.operations.publish(channel, null, message);
+    }
+
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull T message) {
+        return this.operations.publish(channel, key, message);
     }
 
-    public <T> void publish(@NotNull String channel, @NotNull T message) {
-        this.operations.publish(channel, null, message);
+    public CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull byte[] message) {
+        return this.operations.publish(channel, key, message);
     }
 
-    public <T> void publish(@NotNull String channel, @Nullable String key, @NotNull T message) {
-        this.operations.publish(channel, key, message);
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @NotNull String message) {
+        return this.operations.publish(channel, null, message);
     }
 
-    public <T> void publish(@NotNull String channel, @NotNull String message) {
-        this.operations.publish(channel, null, message);
+    public CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull String message) {
+        return this.operations.publish(channel, key, message);
     }
 
-    public void publish(@NotNull String channel, @Nullable String key, @NotNull String message) {
-        this.operations.publish(channel, key, message);
+    public <T, R> CompletableFuture<R> request(@NotNull String channel, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType) {
+        return this.rpc.request(channel, key, request, responseType);
+    }
+
+    public <T, R> CompletableFuture<R> request(@NotNull String channel, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, @NotNull Duration timeout) {
+        return this.rpc.request(channel, key, request, responseType, timeout);
+    }
+
+    public <T, R> CompletableFuture<R> requestNode(@NotNull String nodeId, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType) {
+        return this.rpc.requestNode(nodeId, key, request, responseType);
+    }
+
+    public <T, R> CompletableFuture<R> requestNode(@NotNull String nodeId, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, @NotNull Duration timeout) {
+        return this.rpc.requestNode(nodeId, key, request, responseType, timeout);
     }
 
     public void subscribe(@NotNull String channel) {
-        this.operations.subscribe(this.executorService, channel);
+        this.operations.subscribe(this.workerPool, channel);
     }
 
     public void subscribe(@NotNull ExecutorService executorService, @NotNull String channel) {
@@ -117,7 +401,7 @@ public final class RedisClient {
     }
 
     public void subscribe(@NotNull String channel, @NotNull Map<String, MessageListener> listeners) {
-        this.operations.subscribe(this.executorService, channel, listeners);
+        this.operations.subscribe(this.workerPool, channel, listeners);
     }
 
     public void subscribe(@NotNull ExecutorService executorService, @NotNull String channel, @NotNull Map<String, MessageListener> listeners) {
@@ -155,4 +439,16 @@ public final class RedisClient {
     public <T> Decoder<T> getDecoder(@NotNull Class<?> type) {
         return this.decoders.getDecoder(type);
     }
+
+    public <T> void registerCodec(@NotNull Class<T> type, int typeId, @NotNull BinaryCodec<T> codec) {
+        this.decoders.registerCodec(type, typeId, codec);
+    }
+
+    public void unregisterCodec(@NotNull Class<?> type) {
+        this.decoders.unregisterCodec(type);
+    }
+
+    public <T> BinaryCodec<T> getCodec(@NotNull Class<?> type) {
+        return this.decoders.getCodec(type);
+    }
 }
@@ -24,27 +24,150 @@
 
 package dev.kafein.multiduels.common.redis;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.jetbrains.annotations.NotNull;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
-import redis.clients.jedis.Protocol;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.providers.ClusterConnectionProvider;
+import redis.clients.jedis.providers.ConnectionProvider;
+import redis.clients.jedis.providers.PooledConnectionProvider;
+import redis.clients.jedis.providers.SentineledConnectionProvider;
+import redis.clients.jedis.util.Pool;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 final class RedisConnector {
     RedisConnector() {}
 
-    static @NotNull JedisPool connect(@NotNull RedisCredentials credentials) {
-        return connect(credentials, new JedisPoolConfig());
+    static @NotNull ConnectionProvider connect(@NotNull RedisCredentials credentials, @NotNull RedisPoolMetrics metrics) {
+        return connect(credentials, credentials.getPoolSettings().toPoolConfig(), metrics);
+    }
+
+    static @NotNull ConnectionProvider connect(@NotNull RedisCredentials credentials, @NotNull GenericObjectPoolConfig<Connection> config, @NotNull RedisPoolMetrics metrics) {
+        RedisPoolSettings settings = credentials.getPoolSettings();
+        JedisClientConfig clientConfig = DefaultJedisClientConfig.builder()
+                .user(credentials.getUsername())
+                .password(credentials.getPassword())
+                .ssl(credentials.useSsl())
+                .connectionTimeoutMillis(settings.getConnectionTimeout())
+                .socketTimeoutMillis(settings.getSocketTimeout())
+                .build();
+
+        switch (credentials.getTopology()) {
+            case CLUSTER:
+                return new MeteredClusterConnectionProvider(credentials.getNodes(), clientConfig, config, metrics);
+            case SENTINEL:
+                checkNotNull(credentials.getMasterName(), "master name is required for sentinel topology");
+
+                JedisClientConfig sentinelConfig = DefaultJedisClientConfig.builder()
+                        .ssl(credentials.useSsl())
+                        .connectionTimeoutMillis(settings.getConnectionTimeout())
+                        .socketTimeoutMillis(settings.getSocketTimeout())
+                        .build();
+                return new MeteredConnectionProvider(new SentineledConnectionProvider(credentials.getMasterName(), clientConfig, config, credentials.getNodes(), sentinelConfig), metrics);
+            default:
+                return new MeteredConnectionProvider(new PooledConnectionProvider(credentials.getHostAndPort(), clientConfig, config), metrics);
+        }
+    }
+
+    static @NotNull UnifiedJedis createClient(@NotNull ConnectionProvider provider, @NotNull RedisPoolSettings settings) {
+        if (provider instanceof ClusterConnectionProvider) {
+            return new JedisCluster((ClusterConnectionProvider) provider, JedisCluster.DEFAULT_MAX_ATTEMPTS,
+                    Duration.ofMillis((long) settings.getSocketTimeout() * JedisCluster.DEFAULT_MAX_ATTEMPTS));
+        }
+
+        return new UnifiedJedis(provider);
+    }
+
+    static @NotNull Collection<? extends Pool<Connection>> getPools(@NotNull ConnectionProvider provider) {
+        if (provider instanceof ClusterConnectionProvider) {
+            return ((ClusterConnectionProvider) provider).getNodes().values();
+        }
+
+        if (provider instanceof MeteredConnectionProvider && ((MeteredConnectionProvider) provider).delegate instanceof PooledConnectionProvider) {
+            return ImmutableList.of(((PooledConnectionProvider) ((MeteredConnectionProvider) provider).delegate).getPool());
+        }
+
+        return ImmutableList.of();
     }
 
-    static @NotNull JedisPool connect(@NotNull RedisCredentials credentials, @NotNull GenericObjectPoolConfig<Jedis> config) {
-        return new JedisPool(config,
-                credentials.getHostAndPort().getHost(),
-                credentials.getHostAndPort().getPort(),
-                Protocol.DEFAULT_TIMEOUT,
-                credentials.getPassword(),
-                credentials.useSsl()
-        );
+    private static final class MeteredConnectionProvider implements ConnectionProvider {
+        private final ConnectionProvider delegate;
+        private final RedisPoolMetrics metrics;
+
+        private MeteredConnectionProvider(ConnectionProvider delegate, RedisPoolMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return this.metrics.borrow(this.delegate::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(CommandArguments args) {
+            return this.metrics.borrow(() -> this.delegate.getConnection(args));
+        }
+
+        @Override
+        public Map<?, ?> getConnectionMap() {
+            return this.delegate.getConnectionMap();
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.delegate.close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new JedisException("Could not close connection provider", e);
+            }
+        }
+    }
+
+    private static final class MeteredClusterConnectionProvider extends ClusterConnectionProvider {
+        private final RedisPoolMetrics metrics;
+
+        private MeteredClusterConnectionProvider(Set<HostAndPort> nodes, JedisClientConfig clientConfig, GenericObjectPoolConfig<Connection> poolConfig, RedisPoolMetrics metrics) {
+            super(nodes, clientConfig, poolConfig);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return this.metrics.borrow(super::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(CommandArguments args) {
+            return this.metrics.borrow(() -> super.getConnection(args));
+        }
+
+        @Override
+        public Connection getConnection(HostAndPort node) {
+            return this.metrics.borrow(() -> super.getConnection(node));
+        }
+
+        @Override
+        public Connection getConnectionFromSlot(int slot) {
+            return this.metrics.borrow(() -> super.getConnectionFromSlot(slot));
+        }
     }
 }
@@ -24,22 +24,43 @@
 
 package dev.kafein.multiduels.common.redis;
 
+import com.google.common.collect.ImmutableSet;
 import ninja.leaping.configurate.ConfigurationNode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import redis.clients.jedis.HostAndPort;
 
+import java.util.List;
+import java.util.Set;
+
 public final class RedisCredentials {
     private final HostAndPort hostAndPort;
     private final @Nullable String username;
     private final @Nullable String password;
     private final boolean useSsl;
+    private final RedisPoolSettings poolSettings;
+    private final RedisTopology topology;
+    private final Set<HostAndPort> nodes;
+    private final @Nullable String masterName;
 
     public RedisCredentials(HostAndPort hostAndPort, final @Nullable String username, final @Nullable String password, boolean useSsl) {
+        this(hostAndPort, username, password, useSsl, RedisPoolSettings.defaults());
+    }
+
+    public RedisCredentials(HostAndPort hostAndPort, final @Nullable String username, final @Nullable String password, boolean useSsl, @NotNull RedisPoolSettings poolSettings) {
+        this(hostAndPort, username, password, useSsl, poolSettings, RedisTopology.STANDALONE, ImmutableSet.of(hostAndPort), null);
+    }
+
+    public RedisCredentials(HostAndPort hostAndPort, final @Nullable String username, final @Nullable String password, boolean useSsl, @NotNull RedisPoolSettings poolSettings,
+                            @NotNull RedisTopology topology, @NotNull Set<HostAndPort> nodes, final @Nullable String masterName) {
         this.hostAndPort = hostAndPort;
         this.username = username;
         this.password = password;
         this.useSsl = useSsl;
+        this.poolSettings = poolSettings;
+        this.topology = topology;
+        this.nodes = ImmutableSet.copyOf(nodes);
+        this.masterName = masterName;
     }
 
     @NotNull
@@ -49,11 +70,23 @@ public final class RedisCredentials {
 
     @NotNull
     public static RedisCredentials fromNode(@NotNull ConfigurationNode node) {
+        HostAndPort hostAndPort = HostAndPort.from(node.getNode("host").getString("localhost:6379"));
+        RedisTopology topology = RedisTopology.fromName(node.getNode("topology").getString(RedisTopology.STANDALONE.name()));
+
+        List<String> nodeList = node.getNode("nodes").getList(Object::toString);
+        Set<HostAndPort> nodes = nodeList.isEmpty()
+                ? ImmutableSet.of(hostAndPort)
+                : nodeList.stream().map(HostAndPort::from).collect(ImmutableSet.toImmutableSet());
+
         return new RedisCredentials(
-                HostAndPort.from(node.getNode("host").getString()),
+                hostAndPort,
                 node.getNode("username").getString(),
                 node.getNode("password").getString(),
-                node.getNode("use-ssl").getBoolean()
+                node.getNode("use-ssl").getBoolean(),
+                RedisPoolSettings.fromNode(node.getNode("pool")),
+                topology,
+                nodes,
+                node.getNode("master-name").getString()
         );
     }
 
@@ -72,4 +105,20 @@ public final class RedisCredentials {
     public boolean useSsl() {
         return this.useSsl;
     }
-}
\ No newline at end of file
+
+    public RedisPoolSettings getPoolSettings() {
+        return this.poolSettings;
+    }
+
+    public RedisTopology getTopology() {
+        return this.topology;
+    }
+
+    public Set<HostAndPort> getNodes() {
+        return this.nodes;
+    }
+
+    public @Nullable String getMasterName() {
+        return this.masterName;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public final class RedisKeys {
+    private static final String NAMESPACE = "multiduels";
+    private static final char SEPARATOR = ':';
+
+    private RedisKeys() {}
+
+    @NotNull
+    public static String hashTag(@NotNull String tag) {
+        return '{' + tag + '}';
+    }
+
+    @NotNull
+    public static String tagged(@NotNull String prefix, @NotNull String tag, @NotNull String... parts) {
+        StringBuilder builder = new StringBuilder(NAMESPACE)
+                .append(SEPARATOR).append(prefix)
+                .append(SEPARATOR).append(hashTag(tag));
+        for (String part : parts) {
+            builder.append(SEPARATOR).append(part);
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    public static String match(@NotNull UUID matchId, @NotNull String... parts) {
+        return tagged("match", matchId.toString(), parts);
+    }
+
+    @NotNull
+    public static String lock(@NotNull String name, @NotNull String... parts) {
+        return tagged("lock", name, parts);
+    }
+
+    @NotNull
+    public static String metadata(@NotNull UUID uniqueId, @NotNull String... parts) {
+        return tagged("metadata", uniqueId.toString(), parts);
+    }
+
+    @NotNull
+    public static String queue(@NotNull String partition, @NotNull String... parts) {
+        return tagged("queue", partition, parts);
+    }
+
+    public static int slot(@NotNull String key) {
+        return JedisClusterCRC16.getSlot(key);
+    }
+
+    public static boolean isSameSlot(@NotNull Collection<String> keys) {
+        int slot = -1;
+        for (String key : keys) {
+            int keySlot = slot(key);
+            if (slot != -1 && slot != keySlot) {
+                return false;
+            }
+            slot = keySlot;
+        }
+        return true;
+    }
+
+    @NotNull
+    public static Map<Integer, List<String>> partitionBySlot(@NotNull Collection<String> keys) {
+        Map<Integer, List<String>> partitions = Maps.newLinkedHashMap();
+        for (String key : keys) {
+            partitions.computeIfAbsent(slot(key), slot -> Lists.newArrayList()).add(key);
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+public final class RedisLease implements AutoCloseable {
+    private final RedisLocks locks;
+    private final String name;
+    private final String owner;
+    private final long fencingToken;
+    private final long leaseTime;
+
+    private volatile long expiresAt;
+
+    RedisLease(RedisLocks locks, String name, String owner, long fencingToken, long leaseTime, long expiresAt) {
+        this.locks = locks;
+        this.name = name;
+        this.owner = owner;
+        this.fencingToken = fencingToken;
+        this.leaseTime = leaseTime;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public long getFencingToken() {
+        return this.fencingToken;
+    }
+
+    public long getLeaseTime() {
+        return this.leaseTime;
+    }
+
+    public long getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getRemainingTime() {
+        return Math.max(0, this.expiresAt - System.currentTimeMillis());
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= this.expiresAt;
+    }
+
+    public boolean renew() {
+        return renew(this.leaseTime);
+    }
+
+    public boolean renew(@NotNull Duration leaseTime) {
+        return renew(leaseTime.toMillis());
+    }
+
+    public boolean renew(long leaseTime) {
+        return !isExpired() && this.locks.renew(this, leaseTime);
+    }
+
+    public boolean release() {
+        return this.locks.release(this);
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    @Override
+    public String toString() {
+        return "RedisLease{" +
+                "name='" + this.name + '\'' +
+                ", owner='" + this.owner + '\'' +
+                ", fencingToken=" + this.fencingToken +
+                ", expiresAt=" + this.expiresAt +
+                '}';
+    }
+}
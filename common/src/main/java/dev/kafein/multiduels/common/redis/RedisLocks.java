@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.ImmutableList;
+import dev.kafein.multiduels.common.utils.ExponentialBackoff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class RedisLocks {
+    private static final RedisScript ACQUIRE_SCRIPT = RedisScript.of("lock-acquire",
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then\n" +
+            "    return redis.call('incr', KEYS[2])\n" +
+            "end\n" +
+            "return 0");
+    private static final RedisScript RENEW_SCRIPT = RedisScript.of("lock-renew",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('pexpire', KEYS[1], ARGV[2])\n" +
+            "end\n" +
+            "return 0");
+    private static final RedisScript RELEASE_SCRIPT = RedisScript.of("lock-release",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('del', KEYS[1])\n" +
+            "end\n" +
+            "return 0");
+    private static final RedisScript CURRENT_SCRIPT = RedisScript.of("lock-current",
+            "if redis.call('exists', KEYS[1]) == 1 and redis.call('get', KEYS[2]) == ARGV[1] then\n" +
+            "    return 1\n" +
+            "end\n" +
+            "return 0");
+
+    private static final long RETRY_INITIAL_DELAY = 10;
+    private static final long RETRY_MAX_DELAY = 200;
+
+    private final RedisClient client;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final String ownerPrefix;
+    private final AtomicLong ownerSequence;
+
+    private final LongAdder acquiredCount;
+    private final LongAdder contendedCount;
+    private final LongAdder lostCount;
+
+    RedisLocks(RedisClient client, ExecutorService executor, ScheduledExecutorService timer) {
+        this.client = client;
+        this.executor = executor;
+        this.timer = timer;
+        client.getScripts().register(ACQUIRE_SCRIPT);
+        client.getScripts().register(RENEW_SCRIPT);
+        client.getScripts().register(RELEASE_SCRIPT);
+        client.getScripts().register(CURRENT_SCRIPT);
+        this.ownerPrefix = client.getOptions().getNodeId() + ':';
+        this.ownerSequence = new AtomicLong();
+        this.acquiredCount = new LongAdder();
+        this.contendedCount = new LongAdder();
+        this.lostCount = new LongAdder();
+    }
+
+    public @Nullable RedisLease tryAcquire(@NotNull String name, @NotNull Duration leaseTime) {
+        return tryAcquire(name, leaseTime.toMillis());
+    }
+
+    public @Nullable RedisLease tryAcquire(@NotNull String name, long leaseTime) {
+        checkArgument(leaseTime > 0, "lease time must be positive");
+
+        String owner = this.ownerPrefix + this.ownerSequence.incrementAndGet();
+        long start = System.currentTimeMillis();
+        long token = eval(ACQUIRE_SCRIPT, ImmutableList.of(lockKey(name), fenceKey(name)), ImmutableList.of(owner, Long.toString(leaseTime)));
+        if (token == 0) {
+            this.contendedCount.increment();
+            return null;
+        }
+
+        this.acquiredCount.increment();
+        return new RedisLease(this, name, owner, token, leaseTime, start + leaseTime);
+    }
+
+    public CompletableFuture<RedisLease> tryAcquireAsync(@NotNull String name, @NotNull Duration leaseTime, @NotNull Duration waitTime) {
+        return tryAcquireAsync(name, leaseTime.toMillis(), waitTime.toMillis());
+    }
+
+    public CompletableFuture<RedisLease> tryAcquireAsync(@NotNull String name, long leaseTime, long waitTime) {
+        checkArgument(leaseTime > 0, "lease time must be positive");
+        checkArgument(waitTime >= 0, "wait time cannot be negative");
+
+        CompletableFuture<RedisLease> future = new CompletableFuture<>();
+        ExponentialBackoff backoff = new ExponentialBackoff(RETRY_INITIAL_DELAY, RETRY_MAX_DELAY);
+        attempt(future, name, leaseTime, System.currentTimeMillis() + waitTime, backoff);
+        return future;
+    }
+
+    private void attempt(@NotNull CompletableFuture<RedisLease> future, @NotNull String name, long leaseTime, long deadline, @NotNull ExponentialBackoff backoff) {
+        try {
+            this.executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+
+                RedisLease lease;
+                try {
+                    lease = tryAcquire(name, leaseTime);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                if (lease != null) {
+                    if (!future.complete(lease)) {
+                        lease.release();
+                    }
+                    return;
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    future.complete(null);
+                    return;
+                }
+
+                long delay = Math.min(backoff.nextDelay(), remaining);
+                try {
+                    this.timer.schedule(() -> attempt(future, name, leaseTime, deadline, backoff), delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    public boolean isLocked(@NotNull String name) {
+        return this.client.getRedis().exists(lockKey(name));
+    }
+
+    public long getFencingToken(@NotNull String name) {
+        String token = this.client.getRedis().get(fenceKey(name));
+        return token == null ? 0 : Long.parseLong(token);
+    }
+
+    public boolean isCurrent(@NotNull String name, long fencingToken) {
+        return eval(CURRENT_SCRIPT, ImmutableList.of(lockKey(name), fenceKey(name)), ImmutableList.of(Long.toString(fencingToken))) == 1;
+    }
+
+    public void forceRelease(@NotNull String name) {
+        this.client.getRedis().del(lockKey(name));
+    }
+
+    boolean renew(@NotNull RedisLease lease, long leaseTime) {
+        long start = System.currentTimeMillis();
+        boolean renewed = eval(RENEW_SCRIPT, ImmutableList.of(lockKey(lease.getName())), ImmutableList.of(lease.getOwner(), Long.toString(leaseTime))) == 1;
+        if (renewed) {
+            lease.setExpiresAt(start + leaseTime);
+        } else {
+            this.lostCount.increment();
+        }
+        return renewed;
+    }
+
+    boolean release(@NotNull RedisLease lease) {
+        boolean released = eval(RELEASE_SCRIPT, ImmutableList.of(lockKey(lease.getName())), ImmutableList.of(lease.getOwner())) == 1;
+        lease.setExpiresAt(0);
+        if (!released) {
+            this.lostCount.increment();
+        }
+        return released;
+    }
+
+    public long getAcquiredCount() {
+        return this.acquiredCount.sum();
+    }
+
+    public long getContendedCount() {
+        return this.contendedCount.sum();
+    }
+
+    public long getLostCount() {
+        return this.lostCount.sum();
+    }
+
+    private long eval(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args) {
+        return this.client.getScripts().evalLong(script, keys, args);
+    }
+
+    private static String lockKey(@NotNull String name) {
+        return RedisKeys.lock(name);
+    }
+
+    private static String fenceKey(@NotNull String name) {
+        return RedisKeys.lock(name, "fence");
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
+import dev.kafein.multiduels.common.redis.codec.Decoder;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import dev.kafein.multiduels.common.redis.message.MessageListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisNearCache {
+    public static final String INVALIDATION_CHANNEL = "multiduels:near-cache:invalidate";
+    private static final String BATCH_KEY = "batch";
+
+    private static final RedisScript LOAD_SCRIPT = RedisScript.of("near-cache-load",
+            "return {redis.call('pttl', KEYS[1]), redis.call('get', KEYS[1])}");
+
+    private final RedisClient client;
+    private final Cache<String, Entry> entries;
+    private final ConcurrentMap<String, Long> loads;
+    private final AtomicLong nextLoad;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+    private final LongAdder invalidations;
+
+    RedisNearCache(RedisClient client, long maximumSize, long expireAfter) {
+        this.client = client;
+        this.loads = new ConcurrentHashMap<>();
+        this.nextLoad = new AtomicLong();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfter, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .<String, Entry>removalListener(notification -> {
+                    RemovalCause cause = notification.getCause();
+                    if (cause == RemovalCause.SIZE) {
+                        this.evictions.increment();
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        this.expirations.increment();
+                    }
+                })
+                .build();
+
+        client.getScripts().register(LOAD_SCRIPT);
+    }
+
+    void subscribe() {
+        MessageListener batchListener = MessageListener.raw((client, envelope) -> {
+            if (!isLocal(envelope)) {
+                ByteBuffer buffer = envelope.getPayloadBuffer();
+                int count = ByteBuffers.readVarInt(buffer);
+                for (int i = 0; i < count; i++) {
+                    invalidateLocal(ByteBuffers.readString(buffer));
+                }
+            }
+        });
+
+        this.client.getOperations().subscribe(this.client.getWorkerPool(), INVALIDATION_CHANNEL, MessageListener.raw((client, envelope) -> {
+            if (!isLocal(envelope)) {
+                invalidateLocal(envelope.getPayloadAsString());
+            }
+        }), Collections.singletonMap(BATCH_KEY, batchListener));
+    }
+
+    private boolean isLocal(@NotNull MessageEnvelope envelope) {
+        return this.client.getOptions().getNodeId().equals(envelope.getSender());
+    }
+
+    public @Nullable String get(@NotNull String key) {
+        return getEntry(key).value;
+    }
+
+    public <T> @Nullable T getDecoded(@NotNull String key, @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return getDecoded(key, decoder);
+    }
+
+    public <T> @Nullable T getDecoded(@NotNull String key, @NotNull Decoder<T> decoder) {
+        String value = getEntry(key).value;
+        return value == null ? null : decoder.decode(value);
+    }
+
+    public <T> @Nullable T getDecodedShared(@NotNull String key, @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return getDecodedShared(key, decoder);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T getDecodedShared(@NotNull String key, @NotNull Decoder<T> decoder) {
+        Entry entry = getEntry(key);
+        if (entry.value == null) {
+            return null;
+        }
+
+        Decoded decoded = entry.decoded;
+        if (decoded != null && decoded.decoder == decoder) {
+            return (T) decoded.value;
+        }
+
+        T value = decoder.decode(entry.value);
+        entry.decoded = new Decoded(decoder, value);
+        return value;
+    }
+
+    public void invalidate(@NotNull String key) {
+        invalidateLocal(key);
+        this.client.getOperations().publish(INVALIDATION_CHANNEL, null, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void invalidate(@NotNull Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (keys.size() == 1) {
+            invalidate(keys.iterator().next());
+            return;
+        }
+
+        byte[][] encoded = new byte[keys.size()][];
+        int size = ByteBuffers.varIntSize(encoded.length);
+        int index = 0;
+        for (String key : keys) {
+            invalidateLocal(key);
+
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            encoded[index++] = bytes;
+            size += ByteBuffers.stringSize(bytes);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        ByteBuffers.writeVarInt(buffer, encoded.length);
+        for (byte[] bytes : encoded) {
+            ByteBuffers.writeBytes(buffer, bytes);
+        }
+        this.client.getOperations().publish(INVALIDATION_CHANNEL, BATCH_KEY, buffer.array());
+    }
+
+    public void invalidateLocal(@NotNull String key) {
+        this.invalidations.increment();
+        this.loads.remove(key);
+        this.entries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        this.loads.clear();
+        this.entries.invalidateAll();
+    }
+
+    private Entry getEntry(@NotNull String key) {
+        Entry entry = this.entries.getIfPresent(key);
+        if (entry == null) {
+            return load(key);
+        }
+
+        if (entry.expiresAt != 0 && entry.expiresAt <= System.currentTimeMillis()) {
+            if (this.entries.asMap().remove(key, entry)) {
+                this.expirations.increment();
+            }
+            return load(key);
+        }
+        return entry;
+    }
+
+    private Entry load(@NotNull String key) {
+        long load = this.nextLoad.incrementAndGet();
+        this.loads.put(key, load);
+
+        List<String> result = this.client.getScripts().evalList(LOAD_SCRIPT, Collections.singletonList(key), Collections.emptyList());
+        long timeToLive = result.isEmpty() ? -1 : Long.parseLong(result.get(0));
+        Entry entry = new Entry(result.size() > 1 ? result.get(1) : null, timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0);
+        this.loads.computeIfPresent(key, (ignored, current) -> {
+            if (current != load) {
+                return current;
+            }
+
+            this.entries.put(key, entry);
+            return null;
+        });
+        return entry;
+    }
+
+    public long size() {
+        return this.entries.size();
+    }
+
+    public CacheStats getStats() {
+        return this.entries.stats();
+    }
+
+    public long getHitCount() {
+        return this.entries.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return this.entries.stats().missCount();
+    }
+
+    public double getHitRate() {
+        return this.entries.stats().hitRate();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return this.expirations.sum();
+    }
+
+    public long getInvalidationCount() {
+        return this.invalidations.sum();
+    }
+
+    private static final class Entry {
+        private final @Nullable String value;
+        private final long expiresAt;
+        private volatile Decoded decoded;
+
+        private Entry(@Nullable String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Decoded {
+        private final Decoder<?> decoder;
+        private final Object value;
+
+        private Decoded(Decoder<?> decoder, Object value) {
+            this.decoder = decoder;
+            this.value = value;
+        }
+    }
+}
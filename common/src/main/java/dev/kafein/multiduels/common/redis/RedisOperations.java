@@ -25,22 +25,30 @@
 package dev.kafein.multiduels.common.redis;
 
 import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
 import dev.kafein.multiduels.common.redis.codec.Decoder;
+import dev.kafein.multiduels.common.redis.codec.DecoderCollection;
 import dev.kafein.multiduels.common.redis.message.Message;
 import dev.kafein.multiduels.common.redis.message.MessageListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import redis.clients.jedis.JedisPool;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 public final class RedisOperations {
     private final RedisClient client;
     private final Map<String, RedisSubscription> subscriptions;
+    private final RedisPublisher publisher;
+    private final RedisSubscriber subscriber;
+    private final RedisStreamConsumer streamConsumer;
+    private final Map<String, RedisTransport> transports;
 
     public RedisOperations(RedisClient client) {
         this(client, Maps.newConcurrentMap());
@@ -49,81 +57,152 @@ public final class RedisOperations {
     public RedisOperations(RedisClient client, Map<String, RedisSubscription> subscriptions) {
         this.client = client;
         this.subscriptions = subscriptions;
+        this.publisher = new RedisPublisher(this, client.getScheduler(), client.getOptions());
+        this.subscriber = new RedisSubscriber(this, client.getExecutorService(), client.getScheduler(), client.getOptions());
+        this.streamConsumer = new RedisStreamConsumer(this, client.getStreamExecutor(), client.getOptions().getStreamSettings(), client.getOptions().getNodeId());
+        this.transports = Maps.newConcurrentMap();
     }
 
-    public <T> void publish(@NotNull String channel, @NotNull Message message) {
-        publish(channel, message.getKey(), message.getPayload());
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @NotNull Message message) {
+        return publish(channel, message.getKey(), message.getPayload());
     }
 
-    public <T> void publish(@NotNull String channel, @NotNull T message) {
-        publish(channel, null, message);
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @NotNull T message) {
+        return publish(channel, null, message);
     }
 
-    public <T> void publish(@NotNull String channel, @Nullable String key, @NotNull T message) {
+    public <T> CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull T message) {
         RedisSubscription subscription = this.subscriptions.get(channel);
         checkNotNull(subscription, "Cannot publish message to channel " + channel + " as it is not subscribed to");
 
-        Decoder<T> decoder = this.client.getDecoder(message.getClass());
+        DecoderCollection decoders = this.client.getDecoders();
+        int typeId = decoders.getTypeId(message.getClass());
+
+        BinaryCodec<T> codec = decoders.getCodec(message.getClass());
+        if (codec != null) {
+            return this.publisher.publish(channel, key, typeId, ByteBuffers.encode(codec, message));
+        }
+
+        Decoder<T> decoder = decoders.getDecoder(message.getClass());
         checkNotNull(decoder, "Decoder for " + message.getClass().getName() + " is not registered");
 
-        publish(channel, key, decoder.encode(message));
+        return this.publisher.publish(channel, key, typeId, decoder.encode(message));
     }
 
-    public <T> void publish(@NotNull String channel,
-                            @NotNull String message) {
-        publish(channel, null, message);
+    public CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull byte[] message) {
+        return this.publisher.publish(channel, key, 0, message);
     }
 
-    public void publish(@NotNull String channel, @Nullable String key, @NotNull String message) {
-        RedisPublisher publisher = new RedisPublisher(this, channel);
-        publisher.publish(key, message);
+    public <T> CompletableFuture<Long> publish(@NotNull String channel,
+                                               @NotNull String message) {
+        return publish(channel, null, message);
+    }
+
+    public CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, @NotNull String message) {
+        return this.publisher.publish(channel, key, 0, message);
+    }
+
+    public RedisPublisher getPublisher() {
+        return this.publisher;
     }
 
     public Map<String, RedisSubscription> getSubscriptions() {
         return this.subscriptions;
     }
 
+    public @Nullable RedisSubscription getSubscription(@NotNull String channel) {
+        return this.subscriptions.get(channel);
+    }
+
     public boolean isSubscribed(@NotNull String channel) {
         return this.subscriptions.containsKey(channel);
     }
 
     public void subscribe(@NotNull ExecutorService executor, @NotNull String channel) {
-        RedisSubscription subscription = new RedisSubscription(this, channel);
-        CompletableFuture.runAsync(subscription, executor);
-
-        this.subscriptions.put(channel, subscription);
+        subscribe(new RedisSubscription(this, channel, executor));
     }
 
     public void subscribe(@NotNull ExecutorService executor, @NotNull String channel, @NotNull MessageListener mainListener) {
-        RedisSubscription subscription = new RedisSubscription(this, channel, mainListener);
-        CompletableFuture.runAsync(subscription, executor);
-
-        this.subscriptions.put(channel, subscription);
+        subscribe(new RedisSubscription(this, channel, executor, mainListener));
     }
 
     public void subscribe(@NotNull ExecutorService executor, @NotNull String channel, @NotNull Map<String, MessageListener> listeners) {
-        RedisSubscription subscription = new RedisSubscription(this, channel, listeners);
-        CompletableFuture.runAsync(subscription, executor);
-
-        this.subscriptions.put(channel, subscription);
+        subscribe(new RedisSubscription(this, channel, executor, listeners));
     }
 
     public void subscribe(@NotNull ExecutorService executor, @NotNull String channel, @NotNull MessageListener mainListener, @NotNull Map<String, MessageListener> listeners) {
-        RedisSubscription subscription = new RedisSubscription(this, channel, mainListener, listeners);
-        CompletableFuture.runAsync(subscription, executor);
+        subscribe(new RedisSubscription(this, channel, executor, mainListener, listeners));
+    }
+
+    private void subscribe(@NotNull RedisSubscription subscription) {
+        this.subscriptions.put(subscription.getChannel(), subscription);
 
-        this.subscriptions.put(channel, subscription);
+        if (isStream(subscription.getChannel())) {
+            this.streamConsumer.subscribe(subscription.getChannel());
+        } else {
+            this.subscriber.subscribe(subscription.getChannel());
+        }
     }
 
     public void unsubscribe(@NotNull String channel) {
-        this.subscriptions.remove(channel).unsubscribe();
+        if (this.streamConsumer.isSubscribed(channel)) {
+            this.streamConsumer.unsubscribe(channel);
+        } else {
+            this.subscriber.unsubscribe(channel);
+        }
+        this.subscriptions.remove(channel);
     }
 
     public void unsubscribeAll() {
-        this.subscriptions.values().forEach(RedisSubscription::unsubscribe);
+        this.subscriber.close();
+        this.streamConsumer.close();
         this.subscriptions.clear();
     }
 
+    public RedisTransport getTransport(@NotNull String channel) {
+        return this.transports.getOrDefault(channel, RedisTransport.PUB_SUB);
+    }
+
+    public void setTransport(@NotNull String channel, @NotNull RedisTransport transport) {
+        checkArgument(!this.subscriptions.containsKey(channel), "Cannot change transport of channel " + channel + " while it is subscribed to");
+        checkState(transport != RedisTransport.STREAM || this.client.getOptions().isNodeIdConfigured(),
+                "Channel " + channel + " cannot use stream transport without a configured node-id");
+
+        if (transport == RedisTransport.PUB_SUB) {
+            this.transports.remove(channel);
+        } else {
+            this.transports.put(channel, transport);
+        }
+    }
+
+    public boolean removeStreamGroup(@NotNull String channel, @NotNull String nodeId) {
+        return this.streamConsumer.removeGroup(channel, nodeId);
+    }
+
+    public boolean isStream(@NotNull String channel) {
+        return getTransport(channel) == RedisTransport.STREAM;
+    }
+
+    public long getStreamReadCount() {
+        return this.streamConsumer.getReadCount();
+    }
+
+    public long getStreamAckCount() {
+        return this.streamConsumer.getAckCount();
+    }
+
+    public long getStreamClaimCount() {
+        return this.streamConsumer.getClaimCount();
+    }
+
+    public long getReconnectCount() {
+        return this.subscriber.getReconnectCount();
+    }
+
+    public long getMalformedMessageCount() {
+        return this.subscriber.getMalformedCount();
+    }
+
     public void registerListener(@NotNull String channel, @NotNull MessageListener listener) {
         RedisSubscription subscription = this.subscriptions.get(channel);
         checkNotNull(subscription, "Cannot register listener for channel " + channel + " as it is not subscribed to");
@@ -155,8 +234,4 @@ public final class RedisOperations {
     @NotNull RedisClient getClient() {
         return this.client;
     }
-
-    @NotNull JedisPool getJedisPool() {
-        return this.client.getJedisPool();
-    }
 }
@@ -0,0 +1,394 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisOptions {
+    private static final RedisOptions DEFAULTS = newBuilder().build();
+
+    private final String nodeId;
+    private final boolean nodeIdConfigured;
+    private final long publishFlushInterval;
+    private final int publishBatchSize;
+    private final int subscriberThreads;
+    private final long nearCacheSize;
+    private final long nearCacheExpiry;
+    private final int asyncThreads;
+    private final int asyncQueueSize;
+    private final long asyncTimeout;
+    private final int dispatchQueueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final long dispatchBlockTimeout;
+    private final long rpcTimeout;
+    private final RedisStreamSettings streamSettings;
+    private final long reconnectInitialDelay;
+    private final long reconnectMaxDelay;
+    private final long healthCheckInterval;
+
+    public RedisOptions(@Nullable String nodeId, long publishFlushInterval, int publishBatchSize, int subscriberThreads, long nearCacheSize, long nearCacheExpiry,
+                        int asyncThreads, int asyncQueueSize, long asyncTimeout, int dispatchQueueSize, OverflowPolicy overflowPolicy, long dispatchBlockTimeout,
+                        long rpcTimeout, RedisStreamSettings streamSettings, long reconnectInitialDelay, long reconnectMaxDelay, long healthCheckInterval) {
+        this.nodeId = nodeId == null ? UUID.randomUUID().toString() : nodeId;
+        this.nodeIdConfigured = nodeId != null;
+        this.publishFlushInterval = publishFlushInterval;
+        this.publishBatchSize = publishBatchSize;
+        this.subscriberThreads = subscriberThreads;
+        this.nearCacheSize = nearCacheSize;
+        this.nearCacheExpiry = nearCacheExpiry;
+        this.asyncThreads = asyncThreads;
+        this.asyncQueueSize = asyncQueueSize;
+        this.asyncTimeout = asyncTimeout;
+        this.dispatchQueueSize = dispatchQueueSize;
+        this.overflowPolicy = overflowPolicy;
+        this.dispatchBlockTimeout = dispatchBlockTimeout;
+        this.rpcTimeout = rpcTimeout;
+        this.streamSettings = streamSettings;
+        this.reconnectInitialDelay = reconnectInitialDelay;
+        this.reconnectMaxDelay = reconnectMaxDelay;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    @NotNull
+    public static RedisOptions defaults() {
+        return DEFAULTS;
+    }
+
+    @NotNull
+    public static RedisOptions fromNode(@NotNull ConfigurationNode node) {
+        ConfigurationNode publisher = node.getNode("publisher");
+        ConfigurationNode subscriber = node.getNode("subscriber");
+        ConfigurationNode nearCache = node.getNode("near-cache");
+        ConfigurationNode async = node.getNode("async");
+        ConfigurationNode dispatch = node.getNode("subscriber", "dispatch");
+        ConfigurationNode reconnect = node.getNode("reconnect");
+        return newBuilder()
+                .nodeId(node.getNode("node-id").getString())
+                .publishFlushInterval(publisher.getNode("flush-interval").getLong(DEFAULTS.publishFlushInterval))
+                .publishBatchSize(publisher.getNode("batch-size").getInt(DEFAULTS.publishBatchSize))
+                .subscriberThreads(subscriber.getNode("worker-threads").getInt(DEFAULTS.subscriberThreads))
+                .nearCacheSize(nearCache.getNode("enabled").getBoolean(false) ? nearCache.getNode("maximum-size").getLong(10000) : 0)
+                .nearCacheExpiry(nearCache.getNode("expire-after").getLong(DEFAULTS.nearCacheExpiry))
+                .asyncThreads(async.getNode("threads").getInt(DEFAULTS.asyncThreads))
+                .asyncQueueSize(async.getNode("queue-size").getInt(DEFAULTS.asyncQueueSize))
+                .asyncTimeout(async.getNode("timeout").getLong(DEFAULTS.asyncTimeout))
+                .dispatchQueueSize(dispatch.getNode("queue-size").getInt(DEFAULTS.dispatchQueueSize))
+                .overflowPolicy(OverflowPolicy.fromName(dispatch.getNode("overflow-policy").getString(DEFAULTS.overflowPolicy.name())))
+                .dispatchBlockTimeout(dispatch.getNode("block-timeout").getLong(DEFAULTS.dispatchBlockTimeout))
+                .rpcTimeout(node.getNode("rpc", "timeout").getLong(DEFAULTS.rpcTimeout))
+                .streamSettings(RedisStreamSettings.fromNode(node.getNode("streams")))
+                .reconnectInitialDelay(reconnect.getNode("initial-delay").getLong(DEFAULTS.reconnectInitialDelay))
+                .reconnectMaxDelay(reconnect.getNode("max-delay").getLong(DEFAULTS.reconnectMaxDelay))
+                .healthCheckInterval(reconnect.getNode("health-check-interval").getLong(DEFAULTS.healthCheckInterval))
+                .build();
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    public boolean isNodeIdConfigured() {
+        return this.nodeIdConfigured;
+    }
+
+    public long getPublishFlushInterval() {
+        return this.publishFlushInterval;
+    }
+
+    public int getPublishBatchSize() {
+        return this.publishBatchSize;
+    }
+
+    public int getSubscriberThreads() {
+        return this.subscriberThreads;
+    }
+
+    public boolean isNearCacheEnabled() {
+        return this.nearCacheSize > 0;
+    }
+
+    public long getNearCacheSize() {
+        return this.nearCacheSize;
+    }
+
+    public long getNearCacheExpiry() {
+        return this.nearCacheExpiry;
+    }
+
+    public int getAsyncThreads() {
+        return this.asyncThreads;
+    }
+
+    public int getAsyncQueueSize() {
+        return this.asyncQueueSize;
+    }
+
+    public long getAsyncTimeout() {
+        return this.asyncTimeout;
+    }
+
+    public int getDispatchQueueSize() {
+        return this.dispatchQueueSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    public long getDispatchBlockTimeout() {
+        return this.dispatchBlockTimeout;
+    }
+
+    public long getRpcTimeout() {
+        return this.rpcTimeout;
+    }
+
+    public RedisStreamSettings getStreamSettings() {
+        return this.streamSettings;
+    }
+
+    public long getReconnectInitialDelay() {
+        return this.reconnectInitialDelay;
+    }
+
+    public long getReconnectMaxDelay() {
+        return this.reconnectMaxDelay;
+    }
+
+    public long getHealthCheckInterval() {
+        return this.healthCheckInterval;
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String nodeId;
+        private long publishFlushInterval = 5;
+        private int publishBatchSize = 256;
+        private int subscriberThreads = 2;
+        private long nearCacheSize = 0;
+        private long nearCacheExpiry = 60000;
+        private int asyncThreads = 4;
+        private int asyncQueueSize = 1024;
+        private long asyncTimeout = 2000;
+        private int dispatchQueueSize = 1024;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        private long dispatchBlockTimeout = 50;
+        private long rpcTimeout = 1000;
+        private RedisStreamSettings streamSettings = RedisStreamSettings.defaults();
+        private long reconnectInitialDelay = 100;
+        private long reconnectMaxDelay = 10000;
+        private long healthCheckInterval = 5000;
+
+        private Builder() {
+        }
+
+        public @Nullable String nodeId() {
+            return this.nodeId;
+        }
+
+        public Builder nodeId(@Nullable String nodeId) {
+            this.nodeId = nodeId;
+            return this;
+        }
+
+        public long publishFlushInterval() {
+            return this.publishFlushInterval;
+        }
+
+        public Builder publishFlushInterval(long publishFlushInterval) {
+            this.publishFlushInterval = publishFlushInterval;
+            return this;
+        }
+
+        public int publishBatchSize() {
+            return this.publishBatchSize;
+        }
+
+        public Builder publishBatchSize(int publishBatchSize) {
+            this.publishBatchSize = publishBatchSize;
+            return this;
+        }
+
+        public int subscriberThreads() {
+            return this.subscriberThreads;
+        }
+
+        public Builder subscriberThreads(int subscriberThreads) {
+            this.subscriberThreads = subscriberThreads;
+            return this;
+        }
+
+        public long nearCacheSize() {
+            return this.nearCacheSize;
+        }
+
+        public Builder nearCacheSize(long nearCacheSize) {
+            this.nearCacheSize = nearCacheSize;
+            return this;
+        }
+
+        public long nearCacheExpiry() {
+            return this.nearCacheExpiry;
+        }
+
+        public Builder nearCacheExpiry(long nearCacheExpiry) {
+            this.nearCacheExpiry = nearCacheExpiry;
+            return this;
+        }
+
+        public int asyncThreads() {
+            return this.asyncThreads;
+        }
+
+        public Builder asyncThreads(int asyncThreads) {
+            this.asyncThreads = asyncThreads;
+            return this;
+        }
+
+        public int asyncQueueSize() {
+            return this.asyncQueueSize;
+        }
+
+        public Builder asyncQueueSize(int asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+            return this;
+        }
+
+        public long asyncTimeout() {
+            return this.asyncTimeout;
+        }
+
+        public Builder asyncTimeout(long asyncTimeout) {
+            this.asyncTimeout = asyncTimeout;
+            return this;
+        }
+
+        public int dispatchQueueSize() {
+            return this.dispatchQueueSize;
+        }
+
+        public Builder dispatchQueueSize(int dispatchQueueSize) {
+            this.dispatchQueueSize = dispatchQueueSize;
+            return this;
+        }
+
+        public OverflowPolicy overflowPolicy() {
+            return this.overflowPolicy;
+        }
+
+        public Builder overflowPolicy(@NotNull OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public long dispatchBlockTimeout() {
+            return this.dispatchBlockTimeout;
+        }
+
+        public Builder dispatchBlockTimeout(long dispatchBlockTimeout) {
+            this.dispatchBlockTimeout = dispatchBlockTimeout;
+            return this;
+        }
+
+        public long rpcTimeout() {
+            return this.rpcTimeout;
+        }
+
+        public Builder rpcTimeout(long rpcTimeout) {
+            this.rpcTimeout = rpcTimeout;
+            return this;
+        }
+
+        public RedisStreamSettings streamSettings() {
+            return this.streamSettings;
+        }
+
+        public Builder streamSettings(@NotNull RedisStreamSettings streamSettings) {
+            this.streamSettings = streamSettings;
+            return this;
+        }
+
+        public long reconnectInitialDelay() {
+            return this.reconnectInitialDelay;
+        }
+
+        public Builder reconnectInitialDelay(long reconnectInitialDelay) {
+            this.reconnectInitialDelay = reconnectInitialDelay;
+            return this;
+        }
+
+        public long reconnectMaxDelay() {
+            return this.reconnectMaxDelay;
+        }
+
+        public Builder reconnectMaxDelay(long reconnectMaxDelay) {
+            this.reconnectMaxDelay = reconnectMaxDelay;
+            return this;
+        }
+
+        public long healthCheckInterval() {
+            return this.healthCheckInterval;
+        }
+
+        public Builder healthCheckInterval(long healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+            return this;
+        }
+
+        public RedisOptions build() {
+            checkArgument(this.publishFlushInterval > 0, "publish flush interval must be positive");
+            checkArgument(this.publishBatchSize > 0, "publish batch size must be positive");
+            checkArgument(this.subscriberThreads > 0, "subscriber threads must be positive");
+            checkArgument(this.nearCacheSize >= 0, "near cache size cannot be negative");
+            checkArgument(this.nearCacheExpiry > 0, "near cache expiry must be positive");
+            checkArgument(this.asyncThreads > 0, "async threads must be positive");
+            checkArgument(this.asyncQueueSize > 0, "async queue size must be positive");
+            checkArgument(this.asyncTimeout > 0, "async timeout must be positive");
+            checkArgument(this.dispatchQueueSize > 0, "dispatch queue size must be positive");
+            checkNotNull(this.overflowPolicy, "overflow policy cannot be null");
+            checkArgument(this.dispatchBlockTimeout >= 0, "dispatch block timeout cannot be negative");
+            checkArgument(this.rpcTimeout > 0, "rpc timeout must be positive");
+            checkNotNull(this.streamSettings, "stream settings cannot be null");
+            checkArgument(this.reconnectInitialDelay > 0, "reconnect initial delay must be positive");
+            checkArgument(this.reconnectMaxDelay >= this.reconnectInitialDelay, "reconnect max delay cannot be less than initial delay");
+            checkArgument(this.healthCheckInterval > 0, "health check interval must be positive");
+
+            return new RedisOptions(this.nodeId, this.publishFlushInterval, this.publishBatchSize, this.subscriberThreads, this.nearCacheSize, this.nearCacheExpiry,
+                    this.asyncThreads, this.asyncQueueSize, this.asyncTimeout, this.dispatchQueueSize, this.overflowPolicy, this.dispatchBlockTimeout,
+                    this.rpcTimeout, this.streamSettings, this.reconnectInitialDelay, this.reconnectMaxDelay, this.healthCheckInterval);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import dev.kafein.multiduels.common.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.Pool;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public final class RedisPoolMetrics {
+    private final RedisClient client;
+    private final LatencyHistogram borrowWait;
+    private final AtomicLong maxBorrowWait;
+    private final LongAdder failedBorrows;
+
+    RedisPoolMetrics(RedisClient client) {
+        this.client = client;
+        this.borrowWait = new LatencyHistogram();
+        this.maxBorrowWait = new AtomicLong();
+        this.failedBorrows = new LongAdder();
+    }
+
+    <T> T borrow(@NotNull Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            T resource = supplier.get();
+            recordBorrow(System.nanoTime() - start);
+            return resource;
+        } catch (JedisException e) {
+            recordFailedBorrow();
+            throw e;
+        }
+    }
+
+    void recordBorrow(long nanos) {
+        this.borrowWait.record(nanos);
+        this.maxBorrowWait.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordFailedBorrow() {
+        this.failedBorrows.increment();
+    }
+
+    public int getPoolCount() {
+        return this.client.getPools().size();
+    }
+
+    public int getMaxTotal() {
+        Collection<? extends Pool<Connection>> pools = this.client.getPools();
+        if (pools.isEmpty()) {
+            return this.client.getCredentials().getPoolSettings().getMaxTotal();
+        }
+
+        int maxTotal = 0;
+        for (Pool<Connection> pool : pools) {
+            maxTotal += pool.getMaxTotal();
+        }
+        return maxTotal;
+    }
+
+    public int getActive() {
+        int active = 0;
+        for (Pool<Connection> pool : this.client.getPools()) {
+            active += pool.getNumActive();
+        }
+        return active;
+    }
+
+    public int getIdle() {
+        int idle = 0;
+        for (Pool<Connection> pool : this.client.getPools()) {
+            idle += pool.getNumIdle();
+        }
+        return idle;
+    }
+
+    public int getWaiting() {
+        int waiting = 0;
+        for (Pool<Connection> pool : this.client.getPools()) {
+            waiting += pool.getNumWaiters();
+        }
+        return waiting;
+    }
+
+    public long getBorrowCount() {
+        return this.borrowWait.getCount();
+    }
+
+    public long getFailedBorrowCount() {
+        return this.failedBorrows.sum();
+    }
+
+    public long getMeanBorrowWait(@NotNull TimeUnit unit) {
+        return this.borrowWait.getMean(unit);
+    }
+
+    public long getMaxBorrowWait(@NotNull TimeUnit unit) {
+        return unit.convert(this.maxBorrowWait.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getBorrowWaitPercentile(double percentile, @NotNull TimeUnit unit) {
+        return this.borrowWait.getPercentile(percentile, unit);
+    }
+
+    public void reset() {
+        this.borrowWait.reset();
+        this.maxBorrowWait.set(0);
+        this.failedBorrows.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "RedisPoolMetrics{" +
+                "pools=" + getPoolCount() +
+                ", active=" + getActive() +
+                ", idle=" + getIdle() +
+                ", waiting=" + getWaiting() +
+                ", maxTotal=" + getMaxTotal() +
+                ", borrows=" + getBorrowCount() +
+                ", failedBorrows=" + getFailedBorrowCount() +
+                ", meanWaitMicros=" + getMeanBorrowWait(TimeUnit.MICROSECONDS) +
+                ", p50WaitMicros=" + getBorrowWaitPercentile(50, TimeUnit.MICROSECONDS) +
+                ", p95WaitMicros=" + getBorrowWaitPercentile(95, TimeUnit.MICROSECONDS) +
+                ", p99WaitMicros=" + getBorrowWaitPercentile(99, TimeUnit.MICROSECONDS) +
+                ", maxWaitMicros=" + getMaxBorrowWait(TimeUnit.MICROSECONDS) +
+                '}';
+    }
+}
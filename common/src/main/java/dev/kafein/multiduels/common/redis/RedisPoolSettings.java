@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.ConnectionPoolConfig;
+
+import java.time.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class RedisPoolSettings {
+    private static final RedisPoolSettings DEFAULTS = newBuilder().build();
+
+    private final int maxTotal;
+    private final int maxIdle;
+    private final int minIdle;
+    private final long maxWait;
+    private final int connectionTimeout;
+    private final int socketTimeout;
+    private final long evictionInterval;
+    private final long minEvictableIdleTime;
+    private final boolean testWhileIdle;
+    private final boolean testOnBorrow;
+
+    public RedisPoolSettings(int maxTotal, int maxIdle, int minIdle, long maxWait, int connectionTimeout, int socketTimeout,
+                             long evictionInterval, long minEvictableIdleTime, boolean testWhileIdle, boolean testOnBorrow) {
+        this.maxTotal = maxTotal;
+        this.maxIdle = maxIdle;
+        this.minIdle = minIdle;
+        this.maxWait = maxWait;
+        this.connectionTimeout = connectionTimeout;
+        this.socketTimeout = socketTimeout;
+        this.evictionInterval = evictionInterval;
+        this.minEvictableIdleTime = minEvictableIdleTime;
+        this.testWhileIdle = testWhileIdle;
+        this.testOnBorrow = testOnBorrow;
+    }
+
+    @NotNull
+    public static RedisPoolSettings defaults() {
+        return DEFAULTS;
+    }
+
+    @NotNull
+    public static RedisPoolSettings fromNode(@NotNull ConfigurationNode node) {
+        return newBuilder()
+                .maxTotal(node.getNode("max-total").getInt(DEFAULTS.maxTotal))
+                .maxIdle(node.getNode("max-idle").getInt(DEFAULTS.maxIdle))
+                .minIdle(node.getNode("min-idle").getInt(DEFAULTS.minIdle))
+                .maxWait(node.getNode("max-wait").getLong(DEFAULTS.maxWait))
+                .connectionTimeout(node.getNode("connection-timeout").getInt(DEFAULTS.connectionTimeout))
+                .socketTimeout(node.getNode("socket-timeout").getInt(DEFAULTS.socketTimeout))
+                .evictionInterval(node.getNode("eviction-interval").getLong(DEFAULTS.evictionInterval))
+                .minEvictableIdleTime(node.getNode("min-evictable-idle-time").getLong(DEFAULTS.minEvictableIdleTime))
+                .testWhileIdle(node.getNode("test-while-idle").getBoolean(DEFAULTS.testWhileIdle))
+                .testOnBorrow(node.getNode("test-on-borrow").getBoolean(DEFAULTS.testOnBorrow))
+                .build();
+    }
+
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    public int getMaxIdle() {
+        return this.maxIdle;
+    }
+
+    public int getMinIdle() {
+        return this.minIdle;
+    }
+
+    public long getMaxWait() {
+        return this.maxWait;
+    }
+
+    public int getConnectionTimeout() {
+        return this.connectionTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    public long getEvictionInterval() {
+        return this.evictionInterval;
+    }
+
+    public long getMinEvictableIdleTime() {
+        return this.minEvictableIdleTime;
+    }
+
+    public boolean isTestWhileIdle() {
+        return this.testWhileIdle;
+    }
+
+    public boolean isTestOnBorrow() {
+        return this.testOnBorrow;
+    }
+
+    public ConnectionPoolConfig toPoolConfig() {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMaxTotal(this.maxTotal);
+        config.setMaxIdle(this.maxIdle);
+        config.setMinIdle(this.minIdle);
+        config.setMaxWait(Duration.ofMillis(this.maxWait));
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(this.evictionInterval));
+        config.setMinEvictableIdleTime(Duration.ofMillis(this.minEvictableIdleTime));
+        config.setTestWhileIdle(this.testWhileIdle);
+        config.setTestOnBorrow(this.testOnBorrow);
+        config.setJmxEnabled(false);
+        return config;
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxTotal = 16;
+        private int maxIdle = 16;
+        private int minIdle = 2;
+        private long maxWait = 2000;
+        private int connectionTimeout = 2000;
+        private int socketTimeout = 2000;
+        private long evictionInterval = 30000;
+        private long minEvictableIdleTime = 60000;
+        private boolean testWhileIdle = true;
+        private boolean testOnBorrow = false;
+
+        private Builder() {
+        }
+
+        public int maxTotal() {
+            return this.maxTotal;
+        }
+
+        public Builder maxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        public int maxIdle() {
+            return this.maxIdle;
+        }
+
+        public Builder maxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+            return this;
+        }
+
+        public int minIdle() {
+            return this.minIdle;
+        }
+
+        public Builder minIdle(int minIdle) {
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        public long maxWait() {
+            return this.maxWait;
+        }
+
+        public Builder maxWait(long maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public int connectionTimeout() {
+            return this.connectionTimeout;
+        }
+
+        public Builder connectionTimeout(int connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+            return this;
+        }
+
+        public int socketTimeout() {
+            return this.socketTimeout;
+        }
+
+        public Builder socketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        public long evictionInterval() {
+            return this.evictionInterval;
+        }
+
+        public Builder evictionInterval(long evictionInterval) {
+            this.evictionInterval = evictionInterval;
+            return this;
+        }
+
+        public long minEvictableIdleTime() {
+            return this.minEvictableIdleTime;
+        }
+
+        public Builder minEvictableIdleTime(long minEvictableIdleTime) {
+            this.minEvictableIdleTime = minEvictableIdleTime;
+            return this;
+        }
+
+        public boolean testWhileIdle() {
+            return this.testWhileIdle;
+        }
+
+        public Builder testWhileIdle(boolean testWhileIdle) {
+            this.testWhileIdle = testWhileIdle;
+            return this;
+        }
+
+        public boolean testOnBorrow() {
+            return this.testOnBorrow;
+        }
+
+        public Builder testOnBorrow(boolean testOnBorrow) {
+            this.testOnBorrow = testOnBorrow;
+            return this;
+        }
+
+        public RedisPoolSettings build() {
+            checkArgument(this.maxTotal > 0, "max total must be positive");
+            checkArgument(this.maxIdle >= 0 && this.maxIdle <= this.maxTotal, "max idle must be between 0 and max total");
+            checkArgument(this.minIdle >= 0 && this.minIdle <= this.maxIdle, "min idle must be between 0 and max idle");
+            checkArgument(this.connectionTimeout >= 0, "connection timeout cannot be negative");
+            checkArgument(this.socketTimeout >= 0, "socket timeout cannot be negative");
+
+            return new RedisPoolSettings(this.maxTotal, this.maxIdle, this.minIdle, this.maxWait, this.connectionTimeout, this.socketTimeout,
+                    this.evictionInterval, this.minEvictableIdleTime, this.testWhileIdle, this.testOnBorrow);
+        }
+    }
+}
@@ -24,33 +24,270 @@
 
 package dev.kafein.multiduels.common.redis;
 
-import com.google.gson.JsonObject;
-import dev.kafein.multiduels.common.utils.GsonProvider;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.XAddParams;
 
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-final class RedisPublisher {
-    private final RedisOperations pubSub;
-    private final String channel;
+public final class RedisPublisher {
+    private final RedisOperations operations;
+    private final ScheduledExecutorService scheduler;
+    private final String nodeId;
+    private final long flushInterval;
+    private final int batchSize;
+    private final long streamMaxLength;
 
-    RedisPublisher(RedisOperations pubSub, String channel) {
-        this.pubSub = pubSub;
-        this.channel = channel;
+    private final Map<String, ChannelBuffer> buffers;
+    private final AtomicInteger queueDepth;
+    private final AtomicBoolean flushRequested;
+
+    private final LongAdder publishedCount;
+    private final LongAdder failedCount;
+    private final AtomicLong flushCount;
+    private final AtomicLong totalFlushLatency;
+    private final AtomicLong lastFlushLatency;
+    private final AtomicLong maxFlushLatency;
+
+    private volatile boolean running;
+    private ScheduledFuture<?> flushTask;
+
+    RedisPublisher(RedisOperations operations, ScheduledExecutorService scheduler, RedisOptions options) {
+        this.operations = operations;
+        this.scheduler = scheduler;
+        this.nodeId = options.getNodeId();
+        this.flushInterval = options.getPublishFlushInterval();
+        this.batchSize = options.getPublishBatchSize();
+        this.streamMaxLength = options.getStreamSettings().getMaxLength();
+        this.buffers = Maps.newConcurrentMap();
+        this.queueDepth = new AtomicInteger();
+        this.flushRequested = new AtomicBoolean();
+        this.publishedCount = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.flushCount = new AtomicLong();
+        this.totalFlushLatency = new AtomicLong();
+        this.lastFlushLatency = new AtomicLong();
+        this.maxFlushLatency = new AtomicLong();
+    }
+
+    void start() {
+        if (this.flushTask != null) {
+            return;
+        }
+
+        this.flushTask = this.scheduler.scheduleWithFixedDelay(this::flush, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+        this.running = true;
+    }
+
+    void stop() {
+        this.running = false;
+        if (this.flushTask != null) {
+            this.flushTask.cancel(false);
+            this.flushTask = null;
+        }
+
+        flush();
+    }
+
+    CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, int typeId, @NotNull String message) {
+        return publish(channel, MessageEnvelope.encode(key, typeId, this.nodeId, message));
+    }
+
+    CompletableFuture<Long> publish(@NotNull String channel, @Nullable String key, int typeId, @NotNull byte[] message) {
+        return publish(channel, MessageEnvelope.encode(key, typeId, this.nodeId, message));
+    }
+
+    CompletableFuture<Long> publish(@NotNull String channel, @NotNull byte[] envelope) {
+        if (!this.running) {
+            this.failedCount.increment();
+
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("Publisher is not running"));
+            return future;
+        }
+
+        ChannelBuffer buffer = this.buffers.computeIfAbsent(channel, ChannelBuffer::new);
+
+        PendingMessage pending = new PendingMessage(buffer.channel, envelope);
+        buffer.queue.add(pending);
+
+        if (this.queueDepth.incrementAndGet() >= this.batchSize && this.flushRequested.compareAndSet(false, true)) {
+            try {
+                this.scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+
+        if (!this.running) {
+            flush();
+        }
+
+        return pending.future;
+    }
+
+    synchronized void flush() {
+        this.flushRequested.set(false);
+        if (this.queueDepth.get() == 0) {
+            return;
+        }
+
+        List<PendingMessage> batch = Lists.newArrayListWithCapacity(Math.min(this.queueDepth.get(), this.batchSize));
+        List<PendingMessage> streamBatch = Lists.newArrayList();
+        for (ChannelBuffer buffer : this.buffers.values()) {
+            boolean stream = this.operations.isStream(buffer.name);
+            List<PendingMessage> target = stream ? streamBatch : batch;
+
+            PendingMessage pending;
+            while ((pending = buffer.queue.poll()) != null) {
+                this.queueDepth.decrementAndGet();
+                target.add(pending);
+
+                if (target.size() >= this.batchSize) {
+                    send(target, stream);
+                    target.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            send(batch, false);
+        }
+        if (!streamBatch.isEmpty()) {
+            send(streamBatch, true);
+        }
     }
 
-    void publish(@Nullable String key, @NotNull String message) {
-        JsonObject json = GsonProvider.getGson().fromJson(message, JsonObject.class);
-        checkNotNull(json, "Message is not a valid JSON object");
+    private void send(@NotNull List<PendingMessage> batch, boolean stream) {
+        long start = System.nanoTime();
 
-        if (key != null && json.get("key") == null) {
-            json.addProperty("key", key);
+        try {
+            if (stream) {
+                sendStream(batch);
+            } else {
+                sendPubSub(batch);
+            }
+            this.publishedCount.add(batch.size());
+        } catch (Exception e) {
+            for (PendingMessage pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            this.failedCount.add(batch.size());
         }
 
-        try (Jedis jedis = this.pubSub.getJedisPool().getResource()) {
-            jedis.publish(this.channel, json.toString());
+        recordFlush(System.nanoTime() - start);
+    }
+
+    private void sendPubSub(@NotNull List<PendingMessage> batch) {
+        List<Response<Long>> responses = Lists.newArrayListWithCapacity(batch.size());
+        try (Pipeline pipeline = new Pipeline(this.operations.getClient().getConnection(), true)) {
+            for (PendingMessage pending : batch) {
+                responses.add(pipeline.publish(pending.channel, pending.message));
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(responses.get(i).get());
+        }
+    }
+
+    private void sendStream(@NotNull List<PendingMessage> batch) {
+        XAddParams params = XAddParams.xAddParams().maxLen(this.streamMaxLength).approximateTrimming();
+
+        List<Response<byte[]>> responses = Lists.newArrayListWithCapacity(batch.size());
+        this.operations.getClient().pipelinedBinary(pipeline -> {
+            for (PendingMessage pending : batch) {
+                responses.add(pipeline.xadd(pending.channel, params, Collections.singletonMap(RedisStreamConsumer.ENVELOPE_FIELD, pending.message)));
+            }
+        });
+
+        for (int i = 0; i < batch.size(); i++) {
+            responses.get(i).get();
+            batch.get(i).future.complete(1L);
+        }
+    }
+
+    private void recordFlush(long latency) {
+        this.flushCount.incrementAndGet();
+        this.totalFlushLatency.addAndGet(latency);
+        this.lastFlushLatency.set(latency);
+        this.maxFlushLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    public int getQueueDepth(@NotNull String channel) {
+        ChannelBuffer buffer = this.buffers.get(channel);
+        return buffer == null ? 0 : buffer.queue.size();
+    }
+
+    public long getPublishedCount() {
+        return this.publishedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return this.failedCount.sum();
+    }
+
+    public long getFlushCount() {
+        return this.flushCount.get();
+    }
+
+    public long getLastFlushLatency(@NotNull TimeUnit unit) {
+        return unit.convert(this.lastFlushLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxFlushLatency(@NotNull TimeUnit unit) {
+        return unit.convert(this.maxFlushLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageFlushLatency(@NotNull TimeUnit unit) {
+        long count = this.flushCount.get();
+        return count == 0 ? 0 : unit.convert(this.totalFlushLatency.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class ChannelBuffer {
+        private final String name;
+        private final byte[] channel;
+        private final Queue<PendingMessage> queue;
+
+        private ChannelBuffer(String channel) {
+            this.name = channel;
+            this.channel = channel.getBytes(StandardCharsets.UTF_8);
+            this.queue = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private static final class PendingMessage {
+        private final byte[] channel;
+        private final byte[] message;
+        private final CompletableFuture<Long> future;
+
+        private PendingMessage(byte[] channel, byte[] message) {
+            this.channel = channel;
+            this.message = message;
+            this.future = new CompletableFuture<>();
         }
     }
 }
@@ -0,0 +1,338 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
+import dev.kafein.multiduels.common.redis.codec.Decoder;
+import dev.kafein.multiduels.common.redis.codec.DecoderCollection;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import dev.kafein.multiduels.common.redis.message.MessageListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisRpc {
+    public static final String REQUEST_CHANNEL_PREFIX = "multiduels:rpc:request:";
+    public static final String REPLY_CHANNEL_PREFIX = "multiduels:rpc:reply:";
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final RedisClient client;
+    private final ScheduledExecutorService timer;
+    private final long timeout;
+    private final String requestChannel;
+    private final String replyChannel;
+    private final Map<Long, PendingCall> pendingCalls;
+    private final AtomicLong nextId;
+
+    private final LongAdder requestCount;
+    private final LongAdder timeoutCount;
+    private final LongAdder failureCount;
+
+    RedisRpc(RedisClient client, ScheduledExecutorService timer, long timeout) {
+        this.client = client;
+        this.timer = timer;
+        this.timeout = timeout;
+        this.requestChannel = requestChannel(client.getOptions().getNodeId());
+        this.replyChannel = replyChannel(client.getOptions().getNodeId());
+        this.pendingCalls = Maps.newConcurrentMap();
+        this.nextId = new AtomicLong();
+        this.requestCount = new LongAdder();
+        this.timeoutCount = new LongAdder();
+        this.failureCount = new LongAdder();
+    }
+
+    @NotNull
+    public static String requestChannel(@NotNull String nodeId) {
+        return REQUEST_CHANNEL_PREFIX + nodeId;
+    }
+
+    @NotNull
+    public static String replyChannel(@NotNull String nodeId) {
+        return REPLY_CHANNEL_PREFIX + nodeId;
+    }
+
+    void start() {
+        this.client.getOperations().subscribe(this.client.getWorkerPool(), this.requestChannel);
+        this.client.getOperations().subscribe(this.client.getWorkerPool(), this.replyChannel, MessageListener.raw((client, envelope) -> onReply(envelope)));
+    }
+
+    void close() {
+        RedisRpcException exception = new RedisRpcException("Redis client is closing");
+        for (PendingCall call : this.pendingCalls.values()) {
+            call.future.completeExceptionally(exception);
+        }
+        this.pendingCalls.clear();
+    }
+
+    public <T, R> CompletableFuture<R> request(@NotNull String channel, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType) {
+        return request(channel, key, request, responseType, this.timeout);
+    }
+
+    public <T, R> CompletableFuture<R> request(@NotNull String channel, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, @NotNull Duration timeout) {
+        return request(channel, key, request, responseType, timeout.toMillis());
+    }
+
+    public <T, R> CompletableFuture<R> request(@NotNull String channel, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, long timeout) {
+        DecoderCollection decoders = this.client.getDecoders();
+        return requestRaw(channel, key, decoders.getTypeId(request.getClass()), encode(request), timeout)
+                .thenApply(envelope -> decode(envelope, responseType));
+    }
+
+    public <T, R> CompletableFuture<R> requestNode(@NotNull String nodeId, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType) {
+        return request(requestChannel(nodeId), key, request, responseType, this.timeout);
+    }
+
+    public <T, R> CompletableFuture<R> requestNode(@NotNull String nodeId, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, @NotNull Duration timeout) {
+        return request(requestChannel(nodeId), key, request, responseType, timeout.toMillis());
+    }
+
+    public <T, R> CompletableFuture<R> requestNode(@NotNull String nodeId, @NotNull String key, @NotNull T request, @NotNull Class<R> responseType, long timeout) {
+        return request(requestChannel(nodeId), key, request, responseType, timeout);
+    }
+
+    public CompletableFuture<MessageEnvelope> requestRaw(@NotNull String channel, @NotNull String key, int typeId, @NotNull byte[] payload) {
+        return requestRaw(channel, key, typeId, payload, this.timeout);
+    }
+
+    public CompletableFuture<MessageEnvelope> requestRaw(@NotNull String channel, @NotNull String key, int typeId, @NotNull byte[] payload, long timeout) {
+        checkArgument(timeout > 0, "timeout must be positive");
+
+        long id = this.nextId.incrementAndGet();
+        PendingCall call = new PendingCall();
+        this.pendingCalls.put(id, call);
+        this.requestCount.increment();
+
+        call.timeoutTask = this.timer.schedule(() -> {
+            if (this.pendingCalls.remove(id, call)
+                    && call.future.completeExceptionally(new TimeoutException("RPC " + key + " on " + channel + " timed out after " + timeout + "ms"))) {
+                this.timeoutCount.increment();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        call.future.whenComplete((result, throwable) -> {
+            this.pendingCalls.remove(id, call);
+            call.timeoutTask.cancel(false);
+        });
+
+        byte[] envelope = MessageEnvelope.encode(key, typeId, this.client.getOptions().getNodeId(), MessageEnvelope.FLAG_REQUEST, id, payload);
+        this.client.getOperations().getPublisher().publish(channel, envelope).whenComplete((receivers, throwable) -> {
+            if (throwable != null) {
+                this.failureCount.increment();
+                call.future.completeExceptionally(throwable);
+            } else if (receivers == 0 && !this.client.isClustered()) {
+                this.failureCount.increment();
+                call.future.completeExceptionally(new RedisRpcException("No node is listening on " + channel));
+            }
+        });
+        return call.future;
+    }
+
+    public <T, R> void registerHandler(@NotNull String channel, @NotNull String key, @NotNull Class<T> requestType, @NotNull Function<T, R> handler) {
+        registerAsyncHandler(channel, key, requestType, request -> CompletableFuture.completedFuture(handler.apply(request)));
+    }
+
+    public <T, R> void registerAsyncHandler(@NotNull String channel, @NotNull String key, @NotNull Class<T> requestType, @NotNull Function<T, CompletableFuture<R>> handler) {
+        this.client.getOperations().registerListener(channel, key, MessageListener.raw((client, envelope) -> {
+            if (!envelope.isRequest() || envelope.getSender() == null) {
+                return;
+            }
+
+            CompletableFuture<R> response;
+            try {
+                response = handler.apply(decode(envelope, requestType));
+            } catch (RuntimeException e) {
+                replyError(envelope, e);
+                return;
+            }
+
+            response.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    replyError(envelope, throwable);
+                } else {
+                    reply(envelope, result);
+                }
+            });
+        }));
+    }
+
+    public void unregisterHandler(@NotNull String channel, @NotNull String key) {
+        this.client.getOperations().unregisterListener(channel, key);
+    }
+
+    public <T, R> void registerNodeHandler(@NotNull String key, @NotNull Class<T> requestType, @NotNull Function<T, R> handler) {
+        registerHandler(this.requestChannel, key, requestType, handler);
+    }
+
+    public <T, R> void registerAsyncNodeHandler(@NotNull String key, @NotNull Class<T> requestType, @NotNull Function<T, CompletableFuture<R>> handler) {
+        registerAsyncHandler(this.requestChannel, key, requestType, handler);
+    }
+
+    public void unregisterNodeHandler(@NotNull String key) {
+        unregisterHandler(this.requestChannel, key);
+    }
+
+    private void reply(@NotNull MessageEnvelope request, @Nullable Object result) {
+        int typeId = result == null ? 0 : this.client.getDecoders().getTypeId(result.getClass());
+        byte[] payload = result == null ? EMPTY : encode(result);
+        publishReply(request, MessageEnvelope.FLAG_REPLY, typeId, payload);
+    }
+
+    private void replyError(@NotNull MessageEnvelope request, @NotNull Throwable throwable) {
+        String message = throwable.getMessage() == null ? throwable.getClass().getName() : throwable.getMessage();
+        publishReply(request, MessageEnvelope.FLAG_REPLY | MessageEnvelope.FLAG_ERROR, 0, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void publishReply(@NotNull MessageEnvelope request, int flags, int typeId, @NotNull byte[] payload) {
+        String sender = checkNotNull(request.getSender(), "Request has no sender");
+        byte[] envelope = MessageEnvelope.encode(null, typeId, this.client.getOptions().getNodeId(), flags, request.getCorrelationId(), payload);
+        this.client.getOperations().getPublisher().publish(replyChannel(sender), envelope);
+    }
+
+    private void onReply(@NotNull MessageEnvelope envelope) {
+        if (!envelope.isReply()) {
+            return;
+        }
+
+        PendingCall call = this.pendingCalls.remove(envelope.getCorrelationId());
+        if (call == null) {
+            return;
+        }
+
+        if (envelope.isError()) {
+            this.failureCount.increment();
+            call.future.completeExceptionally(new RedisRpcException(envelope.getPayloadAsString()));
+        } else {
+            call.future.complete(envelope);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> byte[] encode(@NotNull T value) {
+        DecoderCollection decoders = this.client.getDecoders();
+
+        BinaryCodec<T> codec = decoders.getCodec(value.getClass());
+        if (codec != null) {
+            return ByteBuffers.encode(codec, value);
+        }
+
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        Decoder<T> decoder = decoders.getDecoder(value.getClass());
+        checkNotNull(decoder, "Decoder for " + value.getClass().getName() + " is not registered");
+
+        return decoder.encode(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> @Nullable R decode(@NotNull MessageEnvelope envelope, @NotNull Class<R> type) {
+        if (envelope.getTypeId() == 0 && envelope.getPayloadLength() == 0) {
+            return null;
+        }
+
+        DecoderCollection decoders = this.client.getDecoders();
+
+        int typeId = decoders.getTypeId(type);
+        if (envelope.getTypeId() != 0 && envelope.getTypeId() != typeId) {
+            throw new RedisRpcException("Type id " + envelope.getTypeId() + " does not match " + type.getName() + " (" + typeId + ")");
+        }
+
+        BinaryCodec<R> codec = decoders.getCodec(type);
+        if (codec != null) {
+            return codec.decode(envelope.getPayloadBuffer());
+        }
+
+        if (type == byte[].class) {
+            return (R) envelope.getPayload();
+        }
+
+        if (type == String.class) {
+            return (R) envelope.getPayloadAsString();
+        }
+
+        Decoder<R> decoder = decoders.getDecoder(type);
+        checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+        return decoder.decode(envelope.getPayloadAsString());
+    }
+
+    public String getRequestChannel() {
+        return this.requestChannel;
+    }
+
+    public String getReplyChannel() {
+        return this.replyChannel;
+    }
+
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    public int getPendingCount() {
+        return this.pendingCalls.size();
+    }
+
+    public long getRequestCount() {
+        return this.requestCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return this.timeoutCount.sum();
+    }
+
+    public long getFailureCount() {
+        return this.failureCount.sum();
+    }
+
+    private static final class PendingCall {
+        private final CompletableFuture<MessageEnvelope> future;
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        private PendingCall() {
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
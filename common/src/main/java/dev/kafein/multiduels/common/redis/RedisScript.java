@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class RedisScript {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String name;
+    private final String source;
+    private final String sha;
+
+    private RedisScript(String name, String source, String sha) {
+        this.name = name;
+        this.source = source;
+        this.sha = sha;
+    }
+
+    public static RedisScript of(@NotNull String name, @NotNull String source) {
+        checkArgument(!name.isEmpty(), "name cannot be empty");
+        checkArgument(!source.isEmpty(), "source cannot be empty");
+        return new RedisScript(name, source, sha1(source));
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public String getSha() {
+        return this.sha;
+    }
+
+    private static String sha1(@NotNull String source) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return "RedisScript{" +
+                "name='" + this.name + '\'' +
+                ", sha='" + this.sha + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.codec.Decoder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisScripts {
+    private final RedisClient client;
+    private final Map<String, RedisScript> scripts;
+
+    private final LongAdder invocationCount;
+    private final LongAdder reloadCount;
+
+    RedisScripts(RedisClient client) {
+        this.client = client;
+        this.scripts = Maps.newConcurrentMap();
+        this.invocationCount = new LongAdder();
+        this.reloadCount = new LongAdder();
+    }
+
+    public RedisScript register(@NotNull String name, @NotNull String source) {
+        return register(RedisScript.of(name, source));
+    }
+
+    public RedisScript register(@NotNull RedisScript script) {
+        RedisScript existing = this.scripts.putIfAbsent(script.getName(), script);
+        if (existing != null) {
+            checkArgument(existing.getSha().equals(script.getSha()), "Script " + script.getName() + " is already registered with a different source");
+            return existing;
+        }
+
+        if (this.client.getRedis() != null && !this.client.isClustered()) {
+            try {
+                load(script);
+            } catch (JedisConnectionException ignored) {
+            }
+        }
+        return script;
+    }
+
+    public @Nullable RedisScript get(@NotNull String name) {
+        return this.scripts.get(name);
+    }
+
+    public Collection<RedisScript> getScripts() {
+        return Collections.unmodifiableCollection(this.scripts.values());
+    }
+
+    void loadAll() {
+        if (this.client.isClustered()) {
+            return;
+        }
+
+        for (RedisScript script : this.scripts.values()) {
+            load(script);
+        }
+    }
+
+    private void load(@NotNull RedisScript script) {
+        String sha = this.client.getRedis().scriptLoad(script.getSource());
+        checkArgument(script.getSha().equals(sha), "Server returned sha " + sha + " for script " + script.getName());
+    }
+
+    public Object eval(@NotNull String name, @NotNull List<String> keys, @NotNull List<String> args) {
+        RedisScript script = this.scripts.get(name);
+        checkNotNull(script, "Script " + name + " is not registered");
+        return eval(script, keys, args);
+    }
+
+    public Object eval(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args) {
+        this.invocationCount.increment();
+
+        UnifiedJedis redis = this.client.getRedis();
+        try {
+            return redis.evalsha(script.getSha(), keys, args);
+        } catch (JedisNoScriptException e) {
+            this.reloadCount.increment();
+            return redis.eval(script.getSource(), keys, args);
+        }
+    }
+
+    public Object eval(@NotNull RedisScript script, @NotNull String key, @NotNull String... args) {
+        return eval(script, ImmutableList.of(key), ImmutableList.copyOf(args));
+    }
+
+    public long evalLong(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args) {
+        Object result = eval(script, keys, args);
+        return result instanceof Long ? (Long) result : 0;
+    }
+
+    public @Nullable String evalString(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args) {
+        return toString(eval(script, keys, args));
+    }
+
+    public List<String> evalList(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args) {
+        Object result = eval(script, keys, args);
+        if (!(result instanceof List)) {
+            return Collections.emptyList();
+        }
+
+        List<?> values = (List<?>) result;
+        List<String> list = Lists.newArrayListWithCapacity(values.size());
+        for (Object value : values) {
+            list.add(toString(value));
+        }
+        return list;
+    }
+
+    public <T> @Nullable T evalDecoded(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args, @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for type " + type.getName() + " is not registered");
+        return evalDecoded(script, keys, args, decoder);
+    }
+
+    public <T> @Nullable T evalDecoded(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args, @NotNull Decoder<T> decoder) {
+        String result = evalString(script, keys, args);
+        return result == null ? null : decoder.decode(result);
+    }
+
+    public <T> List<T> evalDecodedList(@NotNull RedisScript script, @NotNull List<String> keys, @NotNull List<String> args, @NotNull Decoder<T> decoder) {
+        List<String> values = evalList(script, keys, args);
+        List<T> list = Lists.newArrayListWithCapacity(values.size());
+        for (String value : values) {
+            if (value != null) {
+                list.add(decoder.decode(value));
+            }
+        }
+        return list;
+    }
+
+    public long getInvocationCount() {
+        return this.invocationCount.sum();
+    }
+
+    public long getReloadCount() {
+        return this.reloadCount.sum();
+    }
+
+    private static @Nullable String toString(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import dev.kafein.multiduels.common.utils.ExponentialBackoff;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XAutoClaimParams;
+import redis.clients.jedis.params.XReadGroupParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RedisStreamConsumer {
+    static final byte[] ENVELOPE_FIELD = "e".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NEW_ENTRIES = ">".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PENDING_ENTRIES = "0".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CURSOR_START = "0-0".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CURSOR_END = "$".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisOperations operations;
+    private final ExecutorService executor;
+    private final RedisStreamSettings settings;
+    private final RedisOptions options;
+    private final byte[] group;
+    private final byte[] consumer;
+    private final Map<String, Reader> readers;
+
+    private final LongAdder readCount;
+    private final LongAdder ackCount;
+    private final LongAdder claimCount;
+
+    RedisStreamConsumer(RedisOperations operations, ExecutorService executor, RedisStreamSettings settings, String consumer) {
+        this.operations = operations;
+        this.executor = executor;
+        this.settings = settings;
+        this.options = operations.getClient().getOptions();
+        this.group = settings.getGroup(consumer).getBytes(StandardCharsets.UTF_8);
+        this.consumer = consumer.getBytes(StandardCharsets.UTF_8);
+        this.readers = Maps.newConcurrentMap();
+        this.readCount = new LongAdder();
+        this.ackCount = new LongAdder();
+        this.claimCount = new LongAdder();
+    }
+
+    synchronized void subscribe(@NotNull String channel) {
+        if (this.readers.containsKey(channel)) {
+            return;
+        }
+
+        Reader reader = new Reader(channel);
+        this.readers.put(channel, reader);
+        try {
+            this.executor.execute(reader);
+        } catch (RejectedExecutionException e) {
+            this.readers.remove(channel);
+            throw e;
+        }
+    }
+
+    synchronized void unsubscribe(@NotNull String channel) {
+        Reader reader = this.readers.remove(channel);
+        if (reader != null) {
+            reader.running = false;
+        }
+    }
+
+    synchronized void close() {
+        for (Reader reader : this.readers.values()) {
+            reader.running = false;
+        }
+        this.readers.clear();
+    }
+
+    boolean removeGroup(@NotNull String channel, @NotNull String nodeId) {
+        byte[] group = this.settings.getGroup(nodeId).getBytes(StandardCharsets.UTF_8);
+        try {
+            return this.operations.getClient().getRedis().xgroupDestroy(channel.getBytes(StandardCharsets.UTF_8), group) > 0;
+        } catch (JedisDataException e) {
+            return false;
+        }
+    }
+
+    boolean isSubscribed(@NotNull String channel) {
+        return this.readers.containsKey(channel);
+    }
+
+    long getReadCount() {
+        return this.readCount.sum();
+    }
+
+    long getAckCount() {
+        return this.ackCount.sum();
+    }
+
+    long getClaimCount() {
+        return this.claimCount.sum();
+    }
+
+    private final class Reader implements Runnable {
+        private final String channel;
+        private final String component;
+        private final byte[] key;
+        private final Queue<byte[]> acks;
+        private final ExponentialBackoff backoff;
+
+        private volatile boolean running;
+        private boolean groupCreated;
+        private byte[] pendingCursor;
+        private long lastClaim;
+
+        private Reader(String channel) {
+            this.channel = channel;
+            this.component = "stream:" + channel;
+            this.key = channel.getBytes(StandardCharsets.UTF_8);
+            this.acks = new ConcurrentLinkedQueue<>();
+            this.backoff = new ExponentialBackoff(options.getReconnectInitialDelay(), options.getReconnectMaxDelay());
+            this.pendingCursor = PENDING_ENTRIES;
+            this.running = true;
+        }
+
+        @Override
+        public void run() {
+            while (this.running && !operations.getClient().isClosed() && !Thread.currentThread().isInterrupted()) {
+                try {
+                    UnifiedJedis redis = operations.getClient().getRedis();
+                    if (!this.groupCreated) {
+                        createGroup(redis);
+                    }
+
+                    flushAcks(redis);
+
+                    if (this.pendingCursor != null) {
+                        this.pendingCursor = read(redis, this.pendingCursor, 0);
+                        continue;
+                    }
+
+                    long now = System.currentTimeMillis();
+                    if (settings.getDelivery() == RedisStreamDelivery.COMPETING && now - this.lastClaim >= settings.getClaimIdleTime() / 2) {
+                        this.lastClaim = now;
+                        claim(redis);
+                    }
+
+                    read(redis, NEW_ENTRIES, settings.getBlockTimeout());
+                    if (this.backoff.getAttempts() > 0) {
+                        this.backoff.reset();
+                        operations.getClient().updateConnectionState(this.component, RedisConnectionState.CONNECTED);
+                    }
+                } catch (JedisDataException e) {
+                    if (e.getMessage() != null && e.getMessage().startsWith("NOGROUP")) {
+                        this.groupCreated = false;
+                        continue;
+                    }
+                    pause();
+                } catch (JedisConnectionException e) {
+                    operations.getClient().updateConnectionState(this.component, RedisConnectionState.DISCONNECTED);
+                    pause();
+                }
+            }
+
+            try {
+                flushAcks(operations.getClient().getRedis());
+            } catch (RuntimeException ignored) {
+            }
+            operations.getClient().removeConnectionState(this.component);
+        }
+
+        private void createGroup(@NotNull UnifiedJedis redis) {
+            try {
+                byte[] start = settings.getDelivery() == RedisStreamDelivery.BROADCAST ? CURSOR_END : CURSOR_START;
+                redis.xgroupCreate(this.key, group, start, true);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+            this.groupCreated = true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private @Nullable byte[] read(@NotNull UnifiedJedis redis, @NotNull byte[] id, int block) {
+            XReadGroupParams params = XReadGroupParams.xReadGroupParams().count(settings.getBatchSize());
+            if (block > 0) {
+                params.block(block);
+            }
+
+            Object response = redis.xreadGroup(group, consumer, params, new AbstractMap.SimpleImmutableEntry<>(this.key, id));
+            if (!(response instanceof List)) {
+                return null;
+            }
+
+            byte[] lastId = null;
+            for (Object stream : (List<?>) response) {
+                List<?> entries = (List<?>) ((List<?>) stream).get(1);
+                readCount.add(dispatch(entries));
+
+                if (entries != null && !entries.isEmpty()) {
+                    lastId = (byte[]) ((List<?>) entries.get(entries.size() - 1)).get(0);
+                }
+            }
+            return lastId;
+        }
+
+        private void claim(@NotNull UnifiedJedis redis) {
+            byte[] cursor = CURSOR_START;
+            do {
+                List<Object> response = redis.xautoclaim(this.key, group, consumer, settings.getClaimIdleTime(), cursor,
+                        XAutoClaimParams.xAutoClaimParams().count(settings.getBatchSize()));
+                if (response == null || response.size() < 2) {
+                    return;
+                }
+
+                cursor = (byte[]) response.get(0);
+                claimCount.add(dispatch((List<?>) response.get(1)));
+            } while (this.running && !isCursorStart(cursor));
+        }
+
+        private int dispatch(@Nullable List<?> entries) {
+            if (entries == null) {
+                return 0;
+            }
+
+            RedisSubscription subscription = operations.getSubscriptions().get(this.channel);
+
+            int count = 0;
+            for (Object entry : entries) {
+                if (entry == null) {
+                    continue;
+                }
+
+                List<?> fields = (List<?>) entry;
+                byte[] id = (byte[]) fields.get(0);
+
+                byte[] envelope = findEnvelope((List<?>) fields.get(1));
+                if (envelope == null || subscription == null) {
+                    this.acks.add(id);
+                    continue;
+                }
+
+                MessageEnvelope decoded;
+                try {
+                    decoded = MessageEnvelope.decode(envelope);
+                } catch (RuntimeException e) {
+                    this.acks.add(id);
+                    continue;
+                }
+
+                subscription.dispatch(decoded, () -> this.acks.add(id));
+                count++;
+            }
+            return count;
+        }
+
+        private void flushAcks(@NotNull UnifiedJedis redis) {
+            if (this.acks.isEmpty()) {
+                return;
+            }
+
+            List<byte[]> ids = Lists.newArrayList();
+            byte[] id;
+            while ((id = this.acks.poll()) != null) {
+                ids.add(id);
+            }
+
+            redis.xack(this.key, group, ids.toArray(new byte[0][]));
+            ackCount.add(ids.size());
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(this.backoff.nextDelay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static @Nullable byte[] findEnvelope(@Nullable List<?> fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            byte[] field = (byte[]) fields.get(i);
+            if (Arrays.equals(field, ENVELOPE_FIELD)) {
+                return (byte[]) fields.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCursorStart(@NotNull byte[] cursor) {
+        return Arrays.equals(cursor, CURSOR_START);
+    }
+}
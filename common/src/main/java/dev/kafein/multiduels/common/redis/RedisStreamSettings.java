@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import org.jetbrains.annotations.NotNull;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisStreamSettings {
+    private static final RedisStreamSettings DEFAULTS = newBuilder().build();
+
+    private final String group;
+    private final RedisStreamDelivery delivery;
+    private final long maxLength;
+    private final int batchSize;
+    private final int blockTimeout;
+    private final long claimIdleTime;
+
+    public RedisStreamSettings(String group, RedisStreamDelivery delivery, long maxLength, int batchSize, int blockTimeout, long claimIdleTime) {
+        this.group = group;
+        this.delivery = delivery;
+        this.maxLength = maxLength;
+        this.batchSize = batchSize;
+        this.blockTimeout = blockTimeout;
+        this.claimIdleTime = claimIdleTime;
+    }
+
+    @NotNull
+    public static RedisStreamSettings defaults() {
+        return DEFAULTS;
+    }
+
+    @NotNull
+    public static RedisStreamSettings fromNode(@NotNull ConfigurationNode node) {
+        return newBuilder()
+                .group(node.getNode("group").getString(DEFAULTS.group))
+                .delivery(RedisStreamDelivery.fromName(node.getNode("delivery").getString(DEFAULTS.delivery.name())))
+                .maxLength(node.getNode("max-length").getLong(DEFAULTS.maxLength))
+                .batchSize(node.getNode("batch-size").getInt(DEFAULTS.batchSize))
+                .blockTimeout(node.getNode("block-timeout").getInt(DEFAULTS.blockTimeout))
+                .claimIdleTime(node.getNode("claim-idle-time").getLong(DEFAULTS.claimIdleTime))
+                .build();
+    }
+
+    public String getGroup() {
+        return this.group;
+    }
+
+    public String getGroup(@NotNull String nodeId) {
+        return this.delivery == RedisStreamDelivery.BROADCAST ? this.group + ':' + nodeId : this.group;
+    }
+
+    public RedisStreamDelivery getDelivery() {
+        return this.delivery;
+    }
+
+    public long getMaxLength() {
+        return this.maxLength;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public int getBlockTimeout() {
+        return this.blockTimeout;
+    }
+
+    public long getClaimIdleTime() {
+        return this.claimIdleTime;
+    }
+
+    @NotNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String group = "multiduels";
+        private RedisStreamDelivery delivery = RedisStreamDelivery.BROADCAST;
+        private long maxLength = 10000;
+        private int batchSize = 64;
+        private int blockTimeout = 500;
+        private long claimIdleTime = 30000;
+
+        private Builder() {
+        }
+
+        public String group() {
+            return this.group;
+        }
+
+        public Builder group(@NotNull String group) {
+            this.group = group;
+            return this;
+        }
+
+        public RedisStreamDelivery delivery() {
+            return this.delivery;
+        }
+
+        public Builder delivery(@NotNull RedisStreamDelivery delivery) {
+            this.delivery = delivery;
+            return this;
+        }
+
+        public long maxLength() {
+            return this.maxLength;
+        }
+
+        public Builder maxLength(long maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        public int batchSize() {
+            return this.batchSize;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public int blockTimeout() {
+            return this.blockTimeout;
+        }
+
+        public Builder blockTimeout(int blockTimeout) {
+            this.blockTimeout = blockTimeout;
+            return this;
+        }
+
+        public long claimIdleTime() {
+            return this.claimIdleTime;
+        }
+
+        public Builder claimIdleTime(long claimIdleTime) {
+            this.claimIdleTime = claimIdleTime;
+            return this;
+        }
+
+        public RedisStreamSettings build() {
+            checkNotNull(this.group, "group cannot be null");
+            checkNotNull(this.delivery, "delivery cannot be null");
+            checkArgument(this.maxLength > 0, "max length must be positive");
+            checkArgument(this.batchSize > 0, "batch size must be positive");
+            checkArgument(this.blockTimeout > 0, "block timeout must be positive");
+            checkArgument(this.claimIdleTime > 0, "claim idle time must be positive");
+
+            return new RedisStreamSettings(this.group, this.delivery, this.maxLength, this.batchSize, this.blockTimeout, this.claimIdleTime);
+        }
+    }
+}
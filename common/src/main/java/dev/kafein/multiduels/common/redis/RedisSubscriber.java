@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis;
+
+import com.google.common.collect.Sets;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
+import dev.kafein.multiduels.common.utils.ExponentialBackoff;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RedisSubscriber extends BinaryJedisPubSub implements Runnable {
+    static final String COMPONENT = "pubsub";
+
+    private final RedisOperations operations;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final long healthCheckInterval;
+    private final ExponentialBackoff backoff;
+    private final Set<String> channels;
+    private final AtomicBoolean running;
+    private final LongAdder reconnectCount;
+    private final LongAdder malformedCount;
+
+    private volatile boolean closed;
+    private volatile Connection connection;
+    private volatile long lastActivity;
+    private Set<String> connectedChannels;
+    private ScheduledFuture<?> healthCheckTask;
+
+    RedisSubscriber(RedisOperations operations, ExecutorService executor, ScheduledExecutorService scheduler, RedisOptions options) {
+        this.operations = operations;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.healthCheckInterval = options.getHealthCheckInterval();
+        this.backoff = new ExponentialBackoff(options.getReconnectInitialDelay(), options.getReconnectMaxDelay());
+        this.channels = Sets.newConcurrentHashSet();
+        this.running = new AtomicBoolean();
+        this.reconnectCount = new LongAdder();
+        this.malformedCount = new LongAdder();
+    }
+
+    @Override
+    public void run() {
+        RedisClient client = this.operations.getClient();
+        boolean owner = true;
+        try {
+            while (!this.closed && !client.isClosed() && !Thread.interrupted()) {
+                byte[][] channels = snapshot();
+                if (channels.length == 0) {
+                    client.removeConnectionState(COMPONENT);
+                    this.running.set(false);
+                    if (this.channels.isEmpty() || !this.running.compareAndSet(false, true)) {
+                        owner = false;
+                        return;
+                    }
+                    continue;
+                }
+
+                try (Connection connection = client.getConnection()) {
+                    this.connection = connection;
+                    this.lastActivity = System.currentTimeMillis();
+                    proceed(connection, channels);
+                } catch (JedisConnectionException e) {
+                    if (this.closed || client.isClosed()) {
+                        break;
+                    }
+
+                    client.updateConnectionState(COMPONENT, RedisConnectionState.DISCONNECTED);
+                    this.reconnectCount.increment();
+
+                    try {
+                        Thread.sleep(this.backoff.nextDelay());
+                    } catch (InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    client.updateConnectionState(COMPONENT, RedisConnectionState.CONNECTING);
+                } finally {
+                    this.connection = null;
+                }
+            }
+        } finally {
+            if (owner) {
+                client.removeConnectionState(COMPONENT);
+                this.running.set(false);
+            }
+        }
+    }
+
+    synchronized void subscribe(@NotNull String channel) {
+        this.closed = false;
+        if (!this.channels.add(channel)) {
+            return;
+        }
+
+        if (this.healthCheckTask == null) {
+            this.healthCheckTask = this.scheduler.scheduleWithFixedDelay(this::checkHealth,
+                    this.healthCheckInterval, this.healthCheckInterval, TimeUnit.MILLISECONDS);
+        }
+
+        if (this.running.compareAndSet(false, true)) {
+            this.executor.execute(this);
+        } else if (isSubscribed()) {
+            try {
+                subscribe(channel.getBytes(StandardCharsets.UTF_8));
+            } catch (JedisConnectionException ignored) {
+            }
+        }
+    }
+
+    synchronized void unsubscribe(@NotNull String channel) {
+        if (!this.channels.remove(channel)) {
+            return;
+        }
+
+        if (isSubscribed()) {
+            try {
+                unsubscribe(channel.getBytes(StandardCharsets.UTF_8));
+            } catch (JedisConnectionException ignored) {
+            }
+        }
+    }
+
+    synchronized void close() {
+        this.closed = true;
+        this.channels.clear();
+
+        if (this.healthCheckTask != null) {
+            this.healthCheckTask.cancel(false);
+            this.healthCheckTask = null;
+        }
+
+        if (isSubscribed()) {
+            try {
+                unsubscribe();
+            } catch (JedisConnectionException e) {
+                Connection connection = this.connection;
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+    }
+
+    boolean isSubscribed(@NotNull String channel) {
+        return this.channels.contains(channel);
+    }
+
+    Set<String> getChannels() {
+        return this.channels;
+    }
+
+    long getReconnectCount() {
+        return this.reconnectCount.sum();
+    }
+
+    long getMalformedCount() {
+        return this.malformedCount.sum();
+    }
+
+    private void checkHealth() {
+        Connection connection = this.connection;
+        if (connection == null || !isSubscribed()) {
+            return;
+        }
+
+        if (System.currentTimeMillis() - this.lastActivity > this.healthCheckInterval * 2) {
+            this.operations.getClient().updateConnectionState(COMPONENT, RedisConnectionState.DISCONNECTED);
+            connection.disconnect();
+            return;
+        }
+
+        synchronized (this) {
+            try {
+                ping();
+            } catch (JedisConnectionException e) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(byte[] channel, byte[] message) {
+        this.lastActivity = System.currentTimeMillis();
+
+        RedisSubscription subscription = this.operations.getSubscriptions().get(new String(channel, StandardCharsets.UTF_8));
+        if (subscription == null) {
+            return;
+        }
+
+        try {
+            subscription.dispatch(MessageEnvelope.decode(message));
+        } catch (RuntimeException e) {
+            this.malformedCount.increment();
+        }
+    }
+
+    @Override
+    public void onPong(byte[] pattern) {
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onSubscribe(byte[] channel, int subscribedChannels) {
+        this.lastActivity = System.currentTimeMillis();
+
+        Set<String> connectedChannels = this.connectedChannels;
+        if (connectedChannels == null) {
+            return;
+        }
+
+        this.backoff.reset();
+        this.operations.getClient().updateConnectionState(COMPONENT, RedisConnectionState.CONNECTED);
+
+        synchronized (this) {
+            this.connectedChannels = null;
+            for (String pending : this.channels) {
+                if (!connectedChannels.contains(pending)) {
+                    subscribe(pending.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    private synchronized byte[][] snapshot() {
+        Set<String> connectedChannels = Sets.newHashSet(this.channels);
+        this.connectedChannels = connectedChannels;
+
+        byte[][] channels = new byte[connectedChannels.size()][];
+        int index = 0;
+        for (String channel : connectedChannels) {
+            channels[index++] = channel.getBytes(StandardCharsets.UTF_8);
+        }
+        return channels;
+    }
+}
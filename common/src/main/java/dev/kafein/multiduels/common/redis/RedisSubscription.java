@@ -25,91 +25,181 @@
 package dev.kafein.multiduels.common.redis;
 
 import com.google.common.collect.Maps;
-import com.google.gson.JsonObject;
+import dev.kafein.multiduels.common.redis.message.MessageEnvelope;
 import dev.kafein.multiduels.common.redis.message.MessageListener;
-import dev.kafein.multiduels.common.utils.GsonProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
-import redis.clients.jedis.exceptions.JedisConnectionException;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-public final class RedisSubscription extends JedisPubSub implements Runnable {
+public final class RedisSubscription {
+    private static final int DRAIN_LIMIT = 64;
+
     private final RedisOperations operations;
     private final String channel;
+    private final Executor executor;
     private final Map<String, MessageListener> listeners;
+    private final DispatchQueue queue;
+    private final AtomicBoolean scheduled;
+    private final LongAdder handledCount;
 
-    private MessageListener mainListener;
+    private volatile MessageListener mainListener;
 
-    RedisSubscription(RedisOperations operations, String channel) {
-        this(operations, channel, Maps.newConcurrentMap());
+    RedisSubscription(RedisOperations operations, String channel, Executor executor) {
+        this(operations, channel, executor, Maps.newConcurrentMap());
     }
 
-    RedisSubscription(RedisOperations operations, String channel, MessageListener mainListener) {
-        this(operations, channel, mainListener, Maps.newConcurrentMap());
+    RedisSubscription(RedisOperations operations, String channel, Executor executor, MessageListener mainListener) {
+        this(operations, channel, executor, mainListener, Maps.newConcurrentMap());
     }
 
-    RedisSubscription(RedisOperations operations, String channel, Map<String, MessageListener> listeners) {
-        this.operations = operations;
-        this.channel = channel;
-        this.listeners = listeners;
+    RedisSubscription(RedisOperations operations, String channel, Executor executor, Map<String, MessageListener> listeners) {
+        this(operations, channel, executor, null, listeners);
     }
 
-    RedisSubscription(RedisOperations operations, String channel, MessageListener mainListener, Map<String, MessageListener> listeners) {
+    RedisSubscription(RedisOperations operations, String channel, Executor executor, MessageListener mainListener, Map<String, MessageListener> listeners) {
         this.operations = operations;
         this.channel = channel;
+        this.executor = executor;
         this.listeners = listeners;
         this.mainListener = mainListener;
+        RedisOptions options = operations.getClient().getOptions();
+        this.queue = new DispatchQueue(options.getDispatchQueueSize(), options.getOverflowPolicy(), options.getDispatchBlockTimeout());
+        this.scheduled = new AtomicBoolean();
+        this.handledCount = new LongAdder();
     }
 
-    @Override
-    public void run() {
-        while (!this.operations.getClient().isClosed() && !this.operations.getJedisPool().isClosed() && !Thread.interrupted()) {
-            try (Jedis jedis = this.operations.getJedisPool().getResource()) {
-                jedis.subscribe(this, this.channel);
-            } catch (JedisConnectionException e) {
-                if (this.operations.getClient().isClosed()) {
-                    return;
-                }
+    void dispatch(@NotNull MessageEnvelope envelope) {
+        dispatch(envelope, null);
+    }
+
+    void dispatch(@NotNull MessageEnvelope envelope, @Nullable Runnable callback) {
+        if (this.queue.offer(envelope, callback)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!this.scheduled.compareAndSet(false, true)) {
+            return;
+        }
 
-                try {
-                    unsubscribe();
-                } catch (JedisConnectionException ignored) {
+        try {
+            this.executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            this.queue.clear();
+            this.scheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < DRAIN_LIMIT; i++) {
+                DispatchQueue.Slot slot = this.queue.poll();
+                if (slot == null) {
+                    break;
                 }
 
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
+                handle(slot.getEnvelope());
+                this.handledCount.increment();
+
+                Runnable callback = slot.getCallback();
+                if (callback != null) {
+                    callback.run();
                 }
             }
+        } finally {
+            this.scheduled.set(false);
+            if (!this.queue.isEmpty()) {
+                schedule();
+            }
         }
     }
 
-    @Override
-    public void onMessage(String channel, String message) {
-        if (!channel.equals(this.channel)) {
-            return;
+    private void handle(@NotNull MessageEnvelope envelope) {
+        try {
+            String key = envelope.getKey();
+            if (key != null) {
+                MessageListener listener = getListener(key);
+                checkNotNull(listener, "Listener for key " + key + " is not registered");
+
+                listener.onMessage(this.operations.getClient(), envelope);
+            } else {
+                MessageListener listener = getMainListener();
+                checkNotNull(listener, "Main listener is not registered");
+
+                listener.onMessage(this.operations.getClient(), envelope);
+            }
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
         }
+    }
+
+    public String getChannel() {
+        return this.channel;
+    }
 
-        JsonObject parsed = GsonProvider.getGson().fromJson(message, JsonObject.class);
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
 
-        if (parsed.has("key")) {
-            String key = parsed.get("key").getAsString();
-            MessageListener listener = getListener(key);
-            checkNotNull(listener, "Listener for key " + key + " is not registered");
+    public int getMaxQueueDepth() {
+        return this.queue.getMaxSize();
+    }
 
-            listener.onMessage(this.operations.getClient(), parsed);
-        } else {
-            MessageListener listener = getMainListener();
-            checkNotNull(listener, "Main listener is not registered");
+    public int getQueueCapacity() {
+        return this.queue.getCapacity();
+    }
 
-            listener.onMessage(this.operations.getClient(), parsed);
-        }
+    public void setQueueCapacity(int capacity) {
+        checkArgument(capacity > 0, "queue capacity must be positive");
+        this.queue.setCapacity(capacity);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return this.queue.getOverflowPolicy();
+    }
+
+    public void setOverflowPolicy(@NotNull OverflowPolicy overflowPolicy) {
+        this.queue.setOverflowPolicy(overflowPolicy);
+    }
+
+    public long getBlockTimeout() {
+        return this.queue.getBlockTimeout();
+    }
+
+    public void setBlockTimeout(long blockTimeout) {
+        checkArgument(blockTimeout >= 0, "block timeout cannot be negative");
+        this.queue.setBlockTimeout(blockTimeout);
+    }
+
+    public @Nullable Function<MessageEnvelope, String> getCoalescingKey() {
+        return this.queue.getCoalescingKey();
+    }
+
+    public void setCoalescingKey(@Nullable Function<MessageEnvelope, String> coalescingKey) {
+        this.queue.setCoalescingKey(coalescingKey);
+    }
+
+    public long getHandledCount() {
+        return this.handledCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return this.queue.getDroppedCount();
+    }
+
+    public long getCoalescedCount() {
+        return this.queue.getCoalescedCount();
     }
 
     public @Nullable MessageListener getMainListener() {
@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis.codec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+public final class ByteBuffers {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 16 * 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_CAPACITY));
+
+    private ByteBuffers() {}
+
+    public static <T> byte[] encode(@NotNull BinaryCodec<T> codec, @NotNull T value) {
+        ByteBuffer buffer = BUFFERS.get();
+        while (true) {
+            buffer.clear();
+            try {
+                codec.encode(value, buffer);
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() >= MAX_CAPACITY) {
+                    throw new IllegalStateException("Encoded value exceeds " + MAX_CAPACITY + " bytes", e);
+                }
+
+                buffer = ByteBuffer.allocate(Math.min(buffer.capacity() << 1, MAX_CAPACITY));
+                BUFFERS.set(buffer);
+            }
+        }
+    }
+
+    public static <T> T decode(@NotNull BinaryCodec<T> codec, @NotNull byte[] bytes) {
+        return codec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    public static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static void writeVarInt(@NotNull ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int readVarInt(@NotNull ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte read;
+        do {
+            if (shift >= 35) {
+                throw new IllegalArgumentException("VarInt is too big");
+            }
+
+            read = buffer.get();
+            value |= (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+        return value;
+    }
+
+    public static void writeVarLong(@NotNull ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readVarLong(@NotNull ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte read;
+        do {
+            if (shift >= 70) {
+                throw new IllegalArgumentException("VarLong is too big");
+            }
+
+            read = buffer.get();
+            value |= (long) (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+        return value;
+    }
+
+    public static void writeSignedVarInt(@NotNull ByteBuffer buffer, int value) {
+        writeVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    public static int readSignedVarInt(@NotNull ByteBuffer buffer) {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeSignedVarLong(@NotNull ByteBuffer buffer, long value) {
+        writeVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(@NotNull ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeBoolean(@NotNull ByteBuffer buffer, boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    public static boolean readBoolean(@NotNull ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    public static void writeUniqueId(@NotNull ByteBuffer buffer, @NotNull UUID uniqueId) {
+        buffer.putLong(uniqueId.getMostSignificantBits());
+        buffer.putLong(uniqueId.getLeastSignificantBits());
+    }
+
+    public static UUID readUniqueId(@NotNull ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public static int stringSize(@Nullable byte[] bytes) {
+        return bytes == null ? 1 : varIntSize(bytes.length + 1) + bytes.length;
+    }
+
+    public static void writeString(@NotNull ByteBuffer buffer, @Nullable String value) {
+        writeBytes(buffer, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void writeBytes(@NotNull ByteBuffer buffer, @Nullable byte[] bytes) {
+        if (bytes == null) {
+            writeVarInt(buffer, 0);
+            return;
+        }
+
+        writeVarInt(buffer, bytes.length + 1);
+        buffer.put(bytes);
+    }
+
+    public static @Nullable byte[] readBytes(@NotNull ByteBuffer buffer) {
+        int length = readVarInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public static @Nullable String readString(@NotNull ByteBuffer buffer) {
+        int length = readVarInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -26,10 +26,13 @@ package dev.kafein.multiduels.common.redis.codec;
 
 import com.google.common.collect.Maps;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 public final class DecoderCollection {
     private static final DecoderCollection DEFAULTS;
 
@@ -39,23 +42,45 @@ public final class DecoderCollection {
     }
 
     private final Map<Class<?>, Decoder<?>> decoders;
+    private final Map<Class<?>, BinaryCodec<?>> codecs;
+    private final Map<Class<?>, Integer> typeIds;
+    private final Map<Integer, Class<?>> types;
 
     public DecoderCollection() {
         this(DecoderCollection.DEFAULTS);
     }
 
     public DecoderCollection(DecoderCollection collection) {
-        this(collection.getDecoders());
+        this(Maps.newConcurrentMap(), Maps.newConcurrentMap(), Maps.newConcurrentMap());
+        this.decoders.putAll(collection.getDecoders());
+        this.codecs.putAll(collection.getCodecs());
+        collection.getTypeIds().forEach(this::registerTypeId);
     }
 
     public DecoderCollection(Map<Class<?>, Decoder<?>> decoders) {
+        this(decoders, Maps.newConcurrentMap(), Maps.newConcurrentMap());
+    }
+
+    public DecoderCollection(Map<Class<?>, Decoder<?>> decoders, Map<Class<?>, BinaryCodec<?>> codecs, Map<Class<?>, Integer> typeIds) {
         this.decoders = decoders;
+        this.codecs = codecs;
+        this.typeIds = typeIds;
+        this.types = Maps.newConcurrentMap();
+        typeIds.forEach((type, typeId) -> this.types.put(typeId, type));
     }
 
     public Map<Class<?>, Decoder<?>> getDecoders() {
         return this.decoders;
     }
 
+    public Map<Class<?>, BinaryCodec<?>> getCodecs() {
+        return this.codecs;
+    }
+
+    public Map<Class<?>, Integer> getTypeIds() {
+        return this.typeIds;
+    }
+
     public Set<Class<?>> getKeys() {
         return this.decoders.keySet();
     }
@@ -65,6 +90,45 @@ public final class DecoderCollection {
         return (Decoder<T>) this.decoders.get(type);
     }
 
+    public <T> Decoder<T> getDecoder(int typeId) {
+        Class<?> type = this.types.get(typeId);
+        return type == null ? null : getDecoder(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> BinaryCodec<T> getCodec(@NotNull Class<?> type) {
+        return (BinaryCodec<T>) this.codecs.get(type);
+    }
+
+    public <T> BinaryCodec<T> getCodec(int typeId) {
+        Class<?> type = this.types.get(typeId);
+        return type == null ? null : getCodec(type);
+    }
+
+    public boolean isCodecRegistered(@NotNull Class<?> type) {
+        return this.codecs.containsKey(type);
+    }
+
+    public <T> void registerCodec(@NotNull Class<T> type, int typeId, @NotNull BinaryCodec<T> codec) {
+        registerTypeId(type, typeId);
+        this.codecs.put(type, codec);
+    }
+
+    public void unregisterCodec(@NotNull Class<?> type) {
+        this.codecs.remove(type);
+        if (!this.decoders.containsKey(type)) {
+            unregisterTypeId(type);
+        }
+    }
+
+    public int getTypeId(@NotNull Class<?> type) {
+        return this.typeIds.getOrDefault(type, 0);
+    }
+
+    public @Nullable Class<?> getType(int typeId) {
+        return this.types.get(typeId);
+    }
+
     public boolean isRegistered(@NotNull Class<?> type) {
         return this.decoders.containsKey(type);
     }
@@ -73,8 +137,32 @@ public final class DecoderCollection {
         this.decoders.put(type, decoder);
     }
 
+    public <T> void registerDecoder(@NotNull Class<T> type, int typeId, @NotNull Decoder<T> decoder) {
+        registerTypeId(type, typeId);
+        this.decoders.put(type, decoder);
+    }
+
+    public void registerTypeId(@NotNull Class<?> type, int typeId) {
+        checkArgument(typeId > 0, "Type id must be positive");
+
+        Class<?> registered = this.types.putIfAbsent(typeId, type);
+        checkArgument(registered == null || registered == type, "Type id " + typeId + " is already registered for " + registered);
+
+        this.typeIds.put(type, typeId);
+    }
+
     public void unregisterDecoder(@NotNull Class<?> type) {
         this.decoders.remove(type);
+        if (!this.codecs.containsKey(type)) {
+            unregisterTypeId(type);
+        }
+    }
+
+    private void unregisterTypeId(@NotNull Class<?> type) {
+        Integer typeId = this.typeIds.remove(type);
+        if (typeId != null) {
+            this.types.remove(typeId);
+        }
     }
 
     @NotNull
@@ -84,9 +172,13 @@ public final class DecoderCollection {
 
     public static final class Builder {
         private final Map<Class<?>, Decoder<?>> decoders;
+        private final Map<Class<?>, BinaryCodec<?>> codecs;
+        private final Map<Class<?>, Integer> typeIds;
 
         private Builder() {
             this.decoders = Maps.newHashMap();
+            this.codecs = Maps.newHashMap();
+            this.typeIds = Maps.newHashMap();
         }
 
         public Builder registerDecoder(@NotNull Class<?> type, @NotNull Decoder<?> decoder) {
@@ -94,13 +186,27 @@ public final class DecoderCollection {
             return this;
         }
 
+        public Builder registerDecoder(@NotNull Class<?> type, int typeId, @NotNull Decoder<?> decoder) {
+            this.decoders.put(type, decoder);
+            this.typeIds.put(type, typeId);
+            return this;
+        }
+
+        public Builder registerCodec(@NotNull Class<?> type, int typeId, @NotNull BinaryCodec<?> codec) {
+            this.codecs.put(type, codec);
+            this.typeIds.put(type, typeId);
+            return this;
+        }
+
         public Builder unregisterDecoder(@NotNull Class<?> type) {
             this.decoders.remove(type);
+            this.codecs.remove(type);
+            this.typeIds.remove(type);
             return this;
         }
 
         public DecoderCollection build() {
-            return new DecoderCollection(this.decoders);
+            return new DecoderCollection(this.decoders, this.codecs, this.typeIds);
         }
     }
 }
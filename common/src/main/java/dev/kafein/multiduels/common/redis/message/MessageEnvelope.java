@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.redis.message;
+
+import dev.kafein.multiduels.common.redis.codec.ByteBuffers;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class MessageEnvelope {
+    public static final int FLAG_REQUEST = 1;
+    public static final int FLAG_REPLY = 1 << 1;
+    public static final int FLAG_ERROR = 1 << 2;
+
+    private static final byte LEGACY_VERSION = 1;
+    private static final byte VERSION = 2;
+
+    private final @Nullable String key;
+    private final int typeId;
+    private final @Nullable String sender;
+    private final int flags;
+    private final long correlationId;
+    private final byte[] buffer;
+    private final int payloadOffset;
+
+    private MessageEnvelope(@Nullable String key, int typeId, @Nullable String sender, int flags, long correlationId, byte[] buffer, int payloadOffset) {
+        this.key = key;
+        this.typeId = typeId;
+        this.sender = sender;
+        this.flags = flags;
+        this.correlationId = correlationId;
+        this.buffer = buffer;
+        this.payloadOffset = payloadOffset;
+    }
+
+    public static byte[] encode(@Nullable String key, int typeId, @Nullable String sender, @NotNull String payload) {
+        return encode(key, typeId, sender, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] encode(@Nullable String key, int typeId, @Nullable String sender, @NotNull byte[] payload) {
+        return encode(key, typeId, sender, 0, 0, payload);
+    }
+
+    public static byte[] encode(@Nullable String key, int typeId, @Nullable String sender, int flags, long correlationId, @NotNull byte[] payload) {
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        byte[] senderBytes = sender == null ? null : sender.getBytes(StandardCharsets.UTF_8);
+
+        int size = 2 + (flags == 0 ? 0 : ByteBuffers.varLongSize(correlationId))
+                + ByteBuffers.varIntSize(typeId)
+                + ByteBuffers.stringSize(keyBytes)
+                + ByteBuffers.stringSize(senderBytes)
+                + payload.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        if (flags != 0) {
+            ByteBuffers.writeVarLong(buffer, correlationId);
+        }
+        ByteBuffers.writeVarInt(buffer, typeId);
+        ByteBuffers.writeBytes(buffer, keyBytes);
+        ByteBuffers.writeBytes(buffer, senderBytes);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    @NotNull
+    public static MessageEnvelope of(@Nullable String key, int typeId, @Nullable String sender, @NotNull byte[] payload) {
+        return new MessageEnvelope(key, typeId, sender, 0, 0, payload, 0);
+    }
+
+    @NotNull
+    public static MessageEnvelope decode(@NotNull byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+
+        byte version = buffer.get();
+        checkArgument(version == VERSION || version == LEGACY_VERSION, "Unsupported message envelope version " + version);
+
+        int flags = version == VERSION ? buffer.get() & 0xFF : 0;
+        long correlationId = flags == 0 ? 0 : ByteBuffers.readVarLong(buffer);
+        int typeId = ByteBuffers.readVarInt(buffer);
+        String key = ByteBuffers.readString(buffer);
+        String sender = ByteBuffers.readString(buffer);
+        return new MessageEnvelope(key, typeId, sender, flags, correlationId, message, buffer.position());
+    }
+
+    public @Nullable String getKey() {
+        return this.key;
+    }
+
+    public int getTypeId() {
+        return this.typeId;
+    }
+
+    public @Nullable String getSender() {
+        return this.sender;
+    }
+
+    public int getFlags() {
+        return this.flags;
+    }
+
+    public boolean isRequest() {
+        return (this.flags & FLAG_REQUEST) != 0;
+    }
+
+    public boolean isReply() {
+        return (this.flags & FLAG_REPLY) != 0;
+    }
+
+    public boolean isError() {
+        return (this.flags & FLAG_ERROR) != 0;
+    }
+
+    public long getCorrelationId() {
+        return this.correlationId;
+    }
+
+    public int getPayloadLength() {
+        return this.buffer.length - this.payloadOffset;
+    }
+
+    public byte[] getPayload() {
+        return Arrays.copyOfRange(this.buffer, this.payloadOffset, this.buffer.length);
+    }
+
+    public ByteBuffer getPayloadBuffer() {
+        return ByteBuffer.wrap(this.buffer, this.payloadOffset, getPayloadLength()).slice();
+    }
+
+    public String getPayloadAsString() {
+        return new String(this.buffer, this.payloadOffset, getPayloadLength(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageEnvelope{" +
+                "key='" + this.key + '\'' +
+                ", typeId=" + this.typeId +
+                ", sender='" + this.sender + '\'' +
+                ", flags=" + this.flags +
+                ", correlationId=" + this.correlationId +
+                ", payloadLength=" + getPayloadLength() +
+                '}';
+    }
+}
@@ -26,9 +26,100 @@ package dev.kafein.multiduels.common.redis.message;
 
 import com.google.gson.JsonObject;
 import dev.kafein.multiduels.common.redis.RedisClient;
+import dev.kafein.multiduels.common.redis.codec.BinaryCodec;
+import dev.kafein.multiduels.common.redis.codec.Decoder;
+import dev.kafein.multiduels.common.redis.codec.DecoderCollection;
+import dev.kafein.multiduels.common.utils.GsonProvider;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 @FunctionalInterface
 public interface MessageListener {
-    void onMessage(@NotNull RedisClient client, @NotNull JsonObject message);
+    void onMessage(@NotNull RedisClient client, @NotNull MessageEnvelope envelope);
+
+    default void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+        onMessage(client, MessageEnvelope.of(null, 0, null, message.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @NotNull
+    static MessageListener json(@NotNull BiConsumer<RedisClient, JsonObject> consumer) {
+        return new MessageListener() {
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull MessageEnvelope envelope) {
+                consumer.accept(client, GsonProvider.getGson().fromJson(envelope.getPayloadAsString(), JsonObject.class));
+            }
+
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+                consumer.accept(client, message);
+            }
+        };
+    }
+
+    @NotNull
+    static MessageListener raw(@NotNull BiConsumer<RedisClient, MessageEnvelope> consumer) {
+        return consumer::accept;
+    }
+
+    @NotNull
+    static <T> MessageListener decoding(@NotNull Decoder<T> decoder, @NotNull BiConsumer<RedisClient, T> consumer) {
+        return new MessageListener() {
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull MessageEnvelope envelope) {
+                consumer.accept(client, decoder.decode(envelope.getPayloadAsString()));
+            }
+
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+                consumer.accept(client, decoder.decode(message));
+            }
+        };
+    }
+
+    @NotNull
+    static <T> MessageListener decoding(@NotNull BinaryCodec<T> codec, @NotNull BiConsumer<RedisClient, T> consumer) {
+        return new MessageListener() {
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull MessageEnvelope envelope) {
+                consumer.accept(client, codec.decode(envelope.getPayloadBuffer()));
+            }
+        };
+    }
+
+    @NotNull
+    static <T> MessageListener decoding(@NotNull Class<T> type, @NotNull BiConsumer<RedisClient, T> consumer) {
+        return new MessageListener() {
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull MessageEnvelope envelope) {
+                DecoderCollection decoders = client.getDecoders();
+                int typeId = decoders.getTypeId(type);
+                checkArgument(envelope.getTypeId() == 0 || envelope.getTypeId() == typeId,
+                        "Type id " + envelope.getTypeId() + " does not match " + type.getName() + " (" + typeId + ")");
+
+                BinaryCodec<T> codec = decoders.getCodec(type);
+                if (codec != null) {
+                    consumer.accept(client, codec.decode(envelope.getPayloadBuffer()));
+                    return;
+                }
+
+                Decoder<T> decoder = client.getDecoder(type);
+                checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+                consumer.accept(client, decoder.decode(envelope.getPayloadAsString()));
+            }
+
+            @Override
+            public void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+                Decoder<T> decoder = client.getDecoder(type);
+                checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+                consumer.accept(client, decoder.decode(message));
+            }
+        };
+    }
 }
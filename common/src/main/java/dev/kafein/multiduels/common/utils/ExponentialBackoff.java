@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class ExponentialBackoff {
+    private final long initialDelay;
+    private final long maxDelay;
+
+    private int attempts;
+
+    public ExponentialBackoff(long initialDelay, long maxDelay) {
+        checkArgument(initialDelay > 0, "initial delay must be positive");
+        checkArgument(maxDelay >= initialDelay, "max delay cannot be less than initial delay");
+
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    public long nextDelay() {
+        int shift = Math.min(this.attempts++, 30);
+        long delay = Math.min(this.maxDelay, this.initialDelay << shift);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    public void reset() {
+        this.attempts = 0;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public long getInitialDelay() {
+        return this.initialDelay;
+    }
+
+    public long getMaxDelay() {
+        return this.maxDelay;
+    }
+}
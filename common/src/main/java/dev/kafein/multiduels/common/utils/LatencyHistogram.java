@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Kafein
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.kafein.multiduels.common.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder total;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos >>> 10));
+        this.counts.incrementAndGet(bucket);
+        this.count.increment();
+        this.total.add(nanos);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMean(@NotNull TimeUnit unit) {
+        long count = this.count.sum();
+        return count == 0 ? 0 : unit.convert(this.total.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long getPercentile(double percentile, @NotNull TimeUnit unit) {
+        checkArgument(percentile > 0 && percentile <= 100, "percentile must be in (0, 100]");
+
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(count * (percentile / 100.0D));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= threshold) {
+                return unit.convert(upperBound(i), TimeUnit.NANOSECONDS);
+            }
+        }
+        return unit.convert(upperBound(BUCKETS - 1), TimeUnit.NANOSECONDS);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.count.reset();
+        this.total.reset();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 1L << 10 : (1L << (bucket + 10)) - 1;
+    }
+}